@@ -2,6 +2,7 @@ package com.invoicefinance.config;
 
 import com.invoicefinance.security.CustomUserDetailsService;
 import com.invoicefinance.security.JwtAuthenticationFilter;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
@@ -62,6 +63,8 @@ public class SecurityConfig {
             .csrf(AbstractHttpConfigurer::disable)
             .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
             .authorizeHttpRequests(authz -> authz
+                // Async dispatches of an already-authorized request (SSE streams) are not re-checked
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                 .requestMatchers("/auth/**").permitAll()
                 .requestMatchers("/actuator/**").permitAll()
                 .requestMatchers("/users/me").authenticated()
@@ -69,9 +72,12 @@ public class SecurityConfig {
                 .requestMatchers("/offers/**").authenticated()
                 .requestMatchers("/deals/**").authenticated()
                 .requestMatchers("/favorites/**").authenticated()
+                .requestMatchers("/saved-searches/**").authenticated()
+                .requestMatchers("/auto-bid-rules/**").authenticated()
                 .requestMatchers("/documents/**").authenticated()
                 .requestMatchers("/kyc/**").authenticated()
                 .requestMatchers("/marketplace/**").authenticated()
+                .requestMatchers("/analytics/**").authenticated()
                 .requestMatchers("/admin/**").hasRole("ADMIN")
                 .anyRequest().authenticated()
             )
@@ -0,0 +1,50 @@
+package com.invoicefinance.controller;
+
+import com.invoicefinance.dto.ApiResponse;
+import com.invoicefinance.dto.BulkDealTransitionResponse;
+import com.invoicefinance.dto.BulkDealTransitionsRequest;
+import com.invoicefinance.dto.CacheStatsResponse;
+import com.invoicefinance.dto.CoalescingStatsResponse;
+import com.invoicefinance.service.DealService;
+import com.invoicefinance.service.InvoiceService;
+import com.invoicefinance.service.KycStatusService;
+import com.invoicefinance.service.PresignedUrlCache;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/admin")
+@RequiredArgsConstructor
+public class AdminController {
+    
+    private final PresignedUrlCache presignedUrlCache;
+    private final InvoiceService invoiceService;
+    private final KycStatusService kycStatusService;
+    private final DealService dealService;
+    
+    @GetMapping("/cache/presigned-urls")
+    public ResponseEntity<ApiResponse<CacheStatsResponse>> getPresignedUrlCacheStats() {
+        return ResponseEntity.ok(ApiResponse.success("Cache statistics retrieved", presignedUrlCache.getStats()));
+    }
+    
+    @GetMapping("/cache/kyc-status")
+    public ResponseEntity<ApiResponse<CacheStatsResponse>> getKycStatusCacheStats() {
+        return ResponseEntity.ok(ApiResponse.success("Cache statistics retrieved", kycStatusService.getStats()));
+    }
+    
+    @GetMapping("/coalescing/marketplace")
+    public ResponseEntity<ApiResponse<CoalescingStatsResponse>> getMarketplaceCoalescingStats() {
+        return ResponseEntity.ok(ApiResponse.success("Coalescing statistics retrieved",
+                invoiceService.getMarketplaceCoalescingStats()));
+    }
+    
+    // POST /api/admin/deals/transitions → Move up to 1000 deals in one call, with per-deal outcomes
+    @PostMapping("/deals/transitions")
+    public ResponseEntity<ApiResponse<BulkDealTransitionResponse>> transitionDeals(
+            @Valid @RequestBody BulkDealTransitionsRequest request) {
+        BulkDealTransitionResponse result = dealService.transitionDealsBulk(request.getTransitions());
+        return ResponseEntity.ok(ApiResponse.success("Bulk deal transition processed", result));
+    }
+}
@@ -0,0 +1,31 @@
+package com.invoicefinance.controller;
+
+import com.invoicefinance.dto.ApiResponse;
+import com.invoicefinance.dto.RateBandResponse;
+import com.invoicefinance.service.RateDistributionService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.math.BigDecimal;
+
+@RestController
+@RequestMapping("/analytics")
+@RequiredArgsConstructor
+public class AnalyticsController {
+    
+    private final RateDistributionService rateDistributionService;
+    
+    // GET /api/analytics/rates?tenorDays=&amount=&buyerGstin= → p10/p50/p90 of offered rates in the bucket
+    @GetMapping("/rates")
+    public ResponseEntity<ApiResponse<RateBandResponse>> getRateBand(
+            @RequestParam(required = false) Integer tenorDays,
+            @RequestParam(required = false) BigDecimal amount,
+            @RequestParam(required = false) String buyerGstin) {
+        RateBandResponse band = rateDistributionService.getRateBand(tenorDays, amount, buyerGstin);
+        return ResponseEntity.ok(ApiResponse.success("Rate band retrieved successfully", band));
+    }
+}
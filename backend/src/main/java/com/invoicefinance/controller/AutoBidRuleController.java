@@ -0,0 +1,46 @@
+package com.invoicefinance.controller;
+
+import com.invoicefinance.dto.ApiResponse;
+import com.invoicefinance.dto.AutoBidRuleRequest;
+import com.invoicefinance.dto.AutoBidRuleResponse;
+import com.invoicefinance.service.AutoBidRuleService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/auto-bid-rules")
+@RequiredArgsConstructor
+public class AutoBidRuleController {
+    
+    private final AutoBidRuleService autoBidRuleService;
+    
+    @PostMapping
+    public ResponseEntity<ApiResponse<AutoBidRuleResponse>> createRule(@Valid @RequestBody AutoBidRuleRequest request) {
+        AutoBidRuleResponse rule = autoBidRuleService.createRule(request);
+        return ResponseEntity.ok(ApiResponse.success("Auto-bid rule created successfully", rule));
+    }
+    
+    @GetMapping("/mine")
+    public ResponseEntity<ApiResponse<List<AutoBidRuleResponse>>> getMyRules() {
+        List<AutoBidRuleResponse> rules = autoBidRuleService.getMyRules();
+        return ResponseEntity.ok(ApiResponse.success("Auto-bid rules retrieved successfully", rules));
+    }
+    
+    @PutMapping("/{id}")
+    public ResponseEntity<ApiResponse<AutoBidRuleResponse>> updateRule(
+            @PathVariable Long id,
+            @Valid @RequestBody AutoBidRuleRequest request) {
+        AutoBidRuleResponse rule = autoBidRuleService.updateRule(id, request);
+        return ResponseEntity.ok(ApiResponse.success("Auto-bid rule updated successfully", rule));
+    }
+    
+    @DeleteMapping("/{id}")
+    public ResponseEntity<ApiResponse<Void>> deleteRule(@PathVariable Long id) {
+        autoBidRuleService.deleteRule(id);
+        return ResponseEntity.ok(ApiResponse.success("Auto-bid rule deleted successfully", null));
+    }
+}
@@ -3,13 +3,14 @@ package com.invoicefinance.controller;
 
 import com.invoicefinance.dto.*;
 import com.invoicefinance.service.InvoiceService;
+import com.invoicefinance.service.MarketplaceGenerationTracker;
 import com.invoicefinance.service.OfferService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
-import java.math.BigDecimal;
 import java.util.List;
 
 @RestController
@@ -18,6 +19,7 @@ import java.util.List;
 public class InvoiceController {
     
     private final InvoiceService invoiceService;
+    private final MarketplaceGenerationTracker generationTracker;
     private final OfferService offerService;
     
     // POST /api/invoices → Upload invoice + expected rate
@@ -28,16 +30,23 @@ public class InvoiceController {
         return ResponseEntity.ok(ApiResponse.success("Invoice created successfully", invoice));
     }
     
-    // GET /api/invoices → List all open invoices (public marketplace for lenders)
+    // GET /api/invoices → Page through open invoices (public marketplace for lenders)
     @GetMapping
-    public ResponseEntity<ApiResponse<List<InvoiceResponse>>> getAllOpenInvoices(
-            @RequestParam(required = false) BigDecimal minAmount,
-            @RequestParam(required = false) BigDecimal maxAmount,
-            @RequestParam(required = false) String buyerGstin,
-            @RequestParam(required = false) String search) {
+    public ResponseEntity<ApiResponse<CursorPage<InvoiceResponse>>> getAllOpenInvoices(
+            MarketplaceFilter filter,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(defaultValue = "false") boolean includeCount,
+            WebRequest request) {
         
-        List<InvoiceResponse> invoices = invoiceService.getMarketplaceInvoices(
-                minAmount, maxAmount, buyerGstin, search);
+        // Unchanged polls are answered with 304 before touching the database
+        String etag = generationTracker.etag(filter, cursor, limit, includeCount);
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        
+        CursorPage<InvoiceResponse> invoices = invoiceService.getMarketplaceInvoices(
+                filter, cursor, limit, includeCount);
         return ResponseEntity.ok(ApiResponse.success("Open invoices retrieved", invoices));
     }
     
@@ -71,8 +80,10 @@ public class InvoiceController {
     }
     
     @PostMapping("/{id}/list")
-    public ResponseEntity<ApiResponse<InvoiceResponse>> listInvoice(@PathVariable Long id) {
-        InvoiceResponse invoice = invoiceService.listInvoice(id);
+    public ResponseEntity<ApiResponse<InvoiceResponse>> listInvoice(
+            @PathVariable Long id,
+            @Valid @RequestBody(required = false) ListInvoiceRequest request) {
+        InvoiceResponse invoice = invoiceService.listInvoice(id, request != null ? request : new ListInvoiceRequest());
         return ResponseEntity.ok(ApiResponse.success("Invoice listed in marketplace", invoice));
     }
 }
@@ -1,11 +1,25 @@
 package com.invoicefinance.controller;
 
 import com.invoicefinance.dto.ApiResponse;
+import com.invoicefinance.dto.BuyerSuggestion;
+import com.invoicefinance.dto.CursorPage;
 import com.invoicefinance.dto.InvoiceResponse;
+import com.invoicefinance.dto.InvoiceSearchResponse;
+import com.invoicefinance.dto.MarketplaceFacetsResponse;
+import com.invoicefinance.dto.MarketplaceFilter;
+import com.invoicefinance.security.UserPrincipal;
+import com.invoicefinance.service.BuyerSuggestionIndex;
 import com.invoicefinance.service.InvoiceService;
+import com.invoicefinance.service.MarketplaceFacetService;
+import com.invoicefinance.service.MarketplaceGenerationTracker;
+import com.invoicefinance.service.MarketplaceStreamService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.math.BigDecimal;
 import java.util.List;
@@ -15,19 +29,75 @@ import java.util.List;
 @RequiredArgsConstructor
 public class MarketplaceController {
     
+    private static final int MAX_SUGGESTIONS = 20;
+    
     private final InvoiceService invoiceService;
+    private final MarketplaceGenerationTracker generationTracker;
+    private final BuyerSuggestionIndex buyerSuggestionIndex;
+    private final MarketplaceFacetService marketplaceFacetService;
+    private final MarketplaceStreamService marketplaceStreamService;
     
     @GetMapping("/invoices")
-    public ResponseEntity<ApiResponse<List<InvoiceResponse>>> discoverInvoices(
+    public ResponseEntity<ApiResponse<CursorPage<InvoiceResponse>>> discoverInvoices(
+            MarketplaceFilter filter,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(defaultValue = "false") boolean includeCount,
+            WebRequest request) {
+        
+        // Unchanged polls are answered with 304 before touching the database
+        String etag = generationTracker.etag(filter, cursor, limit, includeCount);
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        
+        CursorPage<InvoiceResponse> invoices = invoiceService.getMarketplaceInvoices(
+                filter, cursor, limit, includeCount);
+        
+        return ResponseEntity.ok(ApiResponse.success("Marketplace invoices retrieved", invoices));
+    }
+    
+    @GetMapping("/search")
+    public ResponseEntity<ApiResponse<InvoiceSearchResponse>> searchInvoices(
+            @RequestParam String q,
+            @RequestParam(required = false) Integer limit) {
+        
+        InvoiceSearchResponse results = invoiceService.searchMarketplace(q, limit);
+        
+        return ResponseEntity.ok(ApiResponse.success("Marketplace search completed", results));
+    }
+    
+    @GetMapping("/buyers/suggest")
+    public ResponseEntity<ApiResponse<List<BuyerSuggestion>>> suggestBuyers(
+            @RequestParam String prefix,
+            @RequestParam(defaultValue = "10") int limit) {
+        
+        List<BuyerSuggestion> suggestions = buyerSuggestionIndex.suggest(
+                prefix, Math.max(1, Math.min(limit, MAX_SUGGESTIONS)));
+        
+        return ResponseEntity.ok(ApiResponse.success("Buyer suggestions retrieved", suggestions));
+    }
+    
+    @GetMapping("/facets")
+    public ResponseEntity<ApiResponse<MarketplaceFacetsResponse>> getFacets() {
+        return ResponseEntity.ok(ApiResponse.success("Marketplace facets retrieved", marketplaceFacetService.getFacets()));
+    }
+    
+    // Live feed of listings, delistings and offer-count changes, filtered server-side
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamMarketplace(
+            @AuthenticationPrincipal UserPrincipal userPrincipal,
             @RequestParam(required = false) BigDecimal minAmount,
             @RequestParam(required = false) BigDecimal maxAmount,
-            @RequestParam(required = false) String buyerGstin,
-            @RequestParam(required = false) String search) {
+            @RequestParam(required = false) String buyerGstin) {
         
-        List<InvoiceResponse> invoices = invoiceService.getMarketplaceInvoices(
-                minAmount, maxAmount, buyerGstin, search);
+        MarketplaceFilter filter = MarketplaceFilter.builder()
+                .minAmount(minAmount)
+                .maxAmount(maxAmount)
+                .buyerGstin(buyerGstin)
+                .build();
         
-        return ResponseEntity.ok(ApiResponse.success("Marketplace invoices retrieved", invoices));
+        return marketplaceStreamService.subscribe(userPrincipal.getId(), filter);
     }
 }
 
@@ -37,4 +107,3 @@ public class MarketplaceController {
 
 
 
-
@@ -1,9 +1,13 @@
 package com.invoicefinance.controller;
 
 import com.invoicefinance.dto.ApiResponse;
+import com.invoicefinance.dto.BulkCreateOffersRequest;
+import com.invoicefinance.dto.BulkOfferResponse;
+import com.invoicefinance.dto.BulkWithdrawOffersRequest;
 import com.invoicefinance.dto.CreateFundingOfferForm;
 import com.invoicefinance.dto.DealResponse;
 import com.invoicefinance.dto.FundingOfferResponse;
+import com.invoicefinance.entity.SyndicationAllocation;
 import com.invoicefinance.service.DealService;
 import com.invoicefinance.service.OfferService;
 import jakarta.validation.Valid;
@@ -18,6 +22,8 @@ import java.util.List;
 @RequiredArgsConstructor
 public class OfferController {
     
+    private static final int MAX_BEST_OFFERS = 50;
+    
     private final OfferService offerService;
     private final DealService dealService;
     
@@ -29,6 +35,22 @@ public class OfferController {
         return ResponseEntity.ok(ApiResponse.success("Funding offer created successfully", offer));
     }
     
+    // POST /api/offers/bulk → Lender submits up to 500 offers in one call, with per-item results
+    @PostMapping("/bulk")
+    public ResponseEntity<ApiResponse<BulkOfferResponse>> createOffersBulk(
+            @Valid @RequestBody BulkCreateOffersRequest request) {
+        BulkOfferResponse result = offerService.createOffersBulk(request.getOffers());
+        return ResponseEntity.ok(ApiResponse.success("Bulk offer submission processed", result));
+    }
+    
+    // POST /api/offers/bulk/withdraw → Lender withdraws up to 500 offers in one call
+    @PostMapping("/bulk/withdraw")
+    public ResponseEntity<ApiResponse<BulkOfferResponse>> withdrawOffersBulk(
+            @Valid @RequestBody BulkWithdrawOffersRequest request) {
+        BulkOfferResponse result = offerService.withdrawOffersBulk(request.getOfferIds());
+        return ResponseEntity.ok(ApiResponse.success("Bulk offer withdrawal processed", result));
+    }
+    
     // GET /api/offers/invoice/{id} → List all offers on a given invoice
     @GetMapping("/invoice/{invoiceId}")
     public ResponseEntity<ApiResponse<List<FundingOfferResponse>>> getInvoiceOffers(@PathVariable Long invoiceId) {
@@ -36,6 +58,15 @@ public class OfferController {
         return ResponseEntity.ok(ApiResponse.success("Invoice offers retrieved successfully", offers));
     }
     
+    // GET /api/offers/invoice/{id}/best?n= → Cheapest offers on an invoice by effective annual cost
+    @GetMapping("/invoice/{invoiceId}/best")
+    public ResponseEntity<ApiResponse<List<FundingOfferResponse>>> getBestOffers(
+            @PathVariable Long invoiceId,
+            @RequestParam(defaultValue = "5") int n) {
+        List<FundingOfferResponse> offers = offerService.getBestOffers(invoiceId, Math.max(1, Math.min(n, MAX_BEST_OFFERS)));
+        return ResponseEntity.ok(ApiResponse.success("Best offers retrieved successfully", offers));
+    }
+    
     // POST /api/offers/{id}/accept → Borrower accepts lender offer
     @PostMapping("/{id}/accept")
     public ResponseEntity<ApiResponse<DealResponse>> acceptOffer(@PathVariable Long id) {
@@ -43,6 +74,15 @@ public class OfferController {
         return ResponseEntity.ok(ApiResponse.success("Offer accepted successfully", deal));
     }
     
+    // POST /api/offers/invoice/{invoiceId}/syndicate?allocation= → Borrower closes a syndicated listing
+    @PostMapping("/invoice/{invoiceId}/syndicate")
+    public ResponseEntity<ApiResponse<DealResponse>> syndicate(
+            @PathVariable Long invoiceId,
+            @RequestParam(required = false) SyndicationAllocation allocation) {
+        DealResponse deal = dealService.syndicate(invoiceId, allocation);
+        return ResponseEntity.ok(ApiResponse.success("Syndicate closed successfully", deal));
+    }
+    
     // Additional endpoints for offer management
     @GetMapping("/mine")
     public ResponseEntity<ApiResponse<List<FundingOfferResponse>>> getMyOffers() {
@@ -0,0 +1,47 @@
+package com.invoicefinance.controller;
+
+import com.invoicefinance.dto.ApiResponse;
+import com.invoicefinance.dto.SavedSearchRequest;
+import com.invoicefinance.dto.SavedSearchResponse;
+import com.invoicefinance.service.SavedSearchService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/saved-searches")
+@RequiredArgsConstructor
+public class SavedSearchController {
+    
+    private final SavedSearchService savedSearchService;
+    
+    @PostMapping
+    public ResponseEntity<ApiResponse<SavedSearchResponse>> createSavedSearch(
+            @Valid @RequestBody SavedSearchRequest request) {
+        SavedSearchResponse savedSearch = savedSearchService.createSavedSearch(request);
+        return ResponseEntity.ok(ApiResponse.success("Saved search created successfully", savedSearch));
+    }
+    
+    @GetMapping("/mine")
+    public ResponseEntity<ApiResponse<List<SavedSearchResponse>>> getMySavedSearches() {
+        List<SavedSearchResponse> savedSearches = savedSearchService.getMySavedSearches();
+        return ResponseEntity.ok(ApiResponse.success("Saved searches retrieved successfully", savedSearches));
+    }
+    
+    @PutMapping("/{id}")
+    public ResponseEntity<ApiResponse<SavedSearchResponse>> updateSavedSearch(
+            @PathVariable Long id,
+            @Valid @RequestBody SavedSearchRequest request) {
+        SavedSearchResponse savedSearch = savedSearchService.updateSavedSearch(id, request);
+        return ResponseEntity.ok(ApiResponse.success("Saved search updated successfully", savedSearch));
+    }
+    
+    @DeleteMapping("/{id}")
+    public ResponseEntity<ApiResponse<Void>> deleteSavedSearch(@PathVariable Long id) {
+        savedSearchService.deleteSavedSearch(id);
+        return ResponseEntity.ok(ApiResponse.success("Saved search deleted successfully", null));
+    }
+}
@@ -0,0 +1,54 @@
+package com.invoicefinance.dto;
+
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.Set;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AutoBidRuleRequest {
+    @NotBlank(message = "Name is required")
+    @Size(max = 100, message = "Name must not exceed 100 characters")
+    private String name;
+    
+    @DecimalMin(value = "0.0", message = "Minimum amount cannot be negative")
+    private BigDecimal minAmount;
+    
+    @DecimalMin(value = "0.0", message = "Maximum amount cannot be negative")
+    private BigDecimal maxAmount;
+    
+    @Size(max = 100, message = "At most 100 buyers can be listed")
+    private Set<@Size(max = 15, message = "Buyer GSTIN must not exceed 15 characters") String> buyerGstins;
+    
+    @DecimalMin(value = "0.01", message = "Minimum rate must be positive")
+    private BigDecimal minRate;
+    
+    @Positive(message = "Maximum tenor days must be positive")
+    private Integer maxTenorDays;
+    
+    @NotNull(message = "Maximum offer amount is required")
+    @DecimalMin(value = "0.01", message = "Maximum offer amount must be positive")
+    private BigDecimal maxOfferAmount;
+    
+    @DecimalMin(value = "0.0", message = "Processing fee cannot be negative")
+    private BigDecimal processingFee;
+    
+    @Positive(message = "Offer validity must be positive")
+    @Max(value = 720, message = "Offer validity cannot exceed 720 hours")
+    private Integer offerValidityHours;
+    
+    @DecimalMin(value = "0.01", message = "Maximum exposure per buyer must be positive")
+    private BigDecimal maxExposurePerBuyer;
+    
+    private Boolean active;
+}
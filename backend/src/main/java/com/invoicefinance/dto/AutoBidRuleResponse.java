@@ -0,0 +1,31 @@
+package com.invoicefinance.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Set;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AutoBidRuleResponse {
+    private String id;
+    private String name;
+    private BigDecimal minAmount;
+    private BigDecimal maxAmount;
+    private Set<String> buyerGstins;
+    private BigDecimal minRate;
+    private Integer maxTenorDays;
+    private BigDecimal maxOfferAmount;
+    private BigDecimal processingFee;
+    private Integer offerValidityHours;
+    private BigDecimal maxExposurePerBuyer;
+    private boolean active;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
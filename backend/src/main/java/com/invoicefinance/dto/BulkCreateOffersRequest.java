@@ -0,0 +1,19 @@
+package com.invoicefinance.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// Items are validated individually so one bad offer does not reject the whole batch
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkCreateOffersRequest {
+    @NotEmpty(message = "At least one offer is required")
+    @Size(max = 500, message = "At most 500 offers can be submitted at once")
+    private List<CreateFundingOfferForm> offers;
+}
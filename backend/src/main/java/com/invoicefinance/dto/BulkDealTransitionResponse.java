@@ -0,0 +1,19 @@
+package com.invoicefinance.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BulkDealTransitionResponse {
+    private int requested;
+    private int succeeded;
+    private int failed;
+    private List<DealTransitionResult> results;
+}
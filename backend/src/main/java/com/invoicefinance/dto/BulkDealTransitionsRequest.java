@@ -0,0 +1,19 @@
+package com.invoicefinance.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// Items are validated individually so one bad entry does not reject the whole batch
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkDealTransitionsRequest {
+    @NotEmpty(message = "At least one transition is required")
+    @Size(max = 1000, message = "At most 1000 deals can be transitioned at once")
+    private List<DealTransitionItem> transitions;
+}
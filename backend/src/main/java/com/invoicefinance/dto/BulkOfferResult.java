@@ -0,0 +1,17 @@
+package com.invoicefinance.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BulkOfferResult {
+    private int index;
+    private boolean success;
+    private String error;
+    private FundingOfferResponse offer;
+}
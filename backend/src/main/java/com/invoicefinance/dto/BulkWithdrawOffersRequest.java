@@ -0,0 +1,18 @@
+package com.invoicefinance.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkWithdrawOffersRequest {
+    @NotEmpty(message = "At least one offer ID is required")
+    @Size(max = 500, message = "At most 500 offers can be withdrawn at once")
+    private List<Long> offerIds;
+}
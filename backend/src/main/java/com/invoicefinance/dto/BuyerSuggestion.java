@@ -0,0 +1,16 @@
+package com.invoicefinance.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BuyerSuggestion {
+    private String buyerName;
+    private String buyerGstin;
+    private int openListings;
+}
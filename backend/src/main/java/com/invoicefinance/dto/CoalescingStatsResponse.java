@@ -0,0 +1,20 @@
+package com.invoicefinance.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CoalescingStatsResponse {
+    private String name;
+    private long inFlight;
+    private long computations;
+    private long callers;
+    private long coalescedCallers;
+    private double callersPerComputation;
+    private long maxCallersPerComputation;
+}
@@ -0,0 +1,20 @@
+package com.invoicefinance.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DealParticipationResponse {
+    private String offerId;
+    private String lenderUserId;
+    private BigDecimal amount;
+    private BigDecimal interestRatePa;
+    private BigDecimal processingFee;
+}
@@ -2,12 +2,14 @@ package com.invoicefinance.dto;
 
 import com.invoicefinance.entity.ContactVisibility;
 import com.invoicefinance.entity.DealStatus;
+import com.invoicefinance.entity.SyndicationAllocation;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 @Data
 @NoArgsConstructor
@@ -21,6 +23,7 @@ public class DealResponse {
     private String selectedOfferId;
     private DealStatus status;
     private ContactVisibility contactVisibility;
+    private SyndicationAllocation allocationStrategy;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
     
@@ -30,6 +33,9 @@ public class DealResponse {
     private UserResponse lender;
     private UserResponse borrower;
     
+    // Every lender's share in allocation order, lead lender first; one entry unless syndicated
+    private List<DealParticipationResponse> participations;
+    
     // Contact information (unlocked after both parties complete KYC)
     private boolean contactsUnlocked;
     private ContactInfo lenderContact;
@@ -0,0 +1,14 @@
+package com.invoicefinance.dto;
+
+import com.invoicefinance.entity.DealStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DealTransitionItem {
+    private Long dealId;
+    private DealStatus targetStatus;
+}
@@ -0,0 +1,20 @@
+package com.invoicefinance.dto;
+
+import com.invoicefinance.entity.DealStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DealTransitionResult {
+    private int index;
+    private String dealId;
+    private boolean success;
+    private String error;
+    private DealStatus fromStatus;
+    private DealStatus toStatus;
+}
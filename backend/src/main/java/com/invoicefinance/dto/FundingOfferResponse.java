@@ -21,6 +21,7 @@ public class FundingOfferResponse {
     private BigDecimal interestRatePa;
     private BigDecimal processingFee;
     private Integer tenorDays;
+    private BigDecimal effectiveAnnualCost;
     private LocalDateTime validUntil;
     private String notes;
     private FundingOfferStatus status;
@@ -0,0 +1,46 @@
+package com.invoicefinance.dto;
+
+import com.invoicefinance.entity.FinancingRequestStatus;
+import com.invoicefinance.entity.InvoiceType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// Flat projection of everything an InvoiceResponse needs, selected with a JPQL constructor
+// expression so listings never touch the borrower or document entities.
+// Field order is the constructor order used by InvoiceRepository.LISTING_ROW_SELECT.
+@Data
+@AllArgsConstructor
+public class InvoiceListingRow {
+    private Long id;
+    private Long borrowerUserId;
+    private String borrowerCompanyName;
+    private String borrowerFullName;
+    private InvoiceType type;
+    private String invoiceNumber;
+    private String buyerName;
+    private String buyerGstin;
+    private LocalDate invoiceDate;
+    private LocalDate dueDate;
+    private BigDecimal invoiceAmount;
+    private BigDecimal requestedAmount;
+    private BigDecimal minAcceptAmount;
+    private BigDecimal expectedInterestRate;
+    private String currency;
+    private String location;
+    private Long documentId;
+    private String documentS3Key;
+    private Long documentOwnerUserId;
+    private FinancingRequestStatus status;
+    private LocalDateTime auctionEndsAt;
+    private boolean syndicated;
+    private BigDecimal fundedAmount;
+    private Integer offerCount;
+    private BigDecimal bestRate;
+    private LocalDateTime lastOfferAt;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
@@ -35,6 +35,12 @@ public class InvoiceResponse {
     private String documentId;
     private String documentDownloadUrl;
     private FinancingRequestStatus status;
+    private LocalDateTime auctionEndsAt;
+    private boolean syndicated;
+    private BigDecimal fundedAmount;
+    private Integer offerCount;
+    private BigDecimal bestRate;
+    private LocalDateTime lastOfferAt;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
     private Long tenorDays;
@@ -0,0 +1,22 @@
+package com.invoicefinance.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class InvoiceSearchResponse {
+    // Most relevant first
+    private List<InvoiceResponse> hits;
+    private long totalHits;
+    
+    // facet name (type, currency, location) -> value -> number of matching invoices
+    private Map<String, Map<String, Long>> facets;
+}
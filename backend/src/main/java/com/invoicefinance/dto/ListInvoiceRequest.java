@@ -0,0 +1,20 @@
+package com.invoicefinance.dto;
+
+import jakarta.validation.constraints.Future;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Optional body for listing an invoice. Setting auctionEndsAt runs the listing as a sealed-bid auction
+// that is cleared automatically at that time; syndicated lets several lenders fill it together.
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ListInvoiceRequest {
+    @Future(message = "Auction end time must be in the future")
+    private LocalDateTime auctionEndsAt;
+    
+    private boolean syndicated;
+}
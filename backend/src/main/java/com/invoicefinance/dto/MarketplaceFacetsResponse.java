@@ -0,0 +1,22 @@
+package com.invoicefinance.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MarketplaceFacetsResponse {
+    private long totalOpen;
+    
+    // facet name -> bucket/value -> number of open invoices
+    private Map<String, Map<String, Long>> facets;
+    
+    private LocalDateTime reconciledAt;
+}
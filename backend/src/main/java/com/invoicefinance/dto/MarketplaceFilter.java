@@ -0,0 +1,40 @@
+package com.invoicefinance.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+// Marketplace query-string filters, bound from request parameters
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MarketplaceFilter {
+    private BigDecimal minAmount;
+    private BigDecimal maxAmount;
+    private String buyerGstin;
+    private BigDecimal minRate;
+    private Integer maxTenorDays;
+    private String search;
+    private MarketplaceSort sort;
+    
+    // Blank text filters mean "no filter"; no sort means newest first
+    public MarketplaceFilter normalized() {
+        return MarketplaceFilter.builder()
+                .minAmount(minAmount)
+                .maxAmount(maxAmount)
+                .buyerGstin(blankToNull(buyerGstin))
+                .minRate(minRate)
+                .maxTenorDays(maxTenorDays)
+                .search(blankToNull(search))
+                .sort(sort != null ? sort : MarketplaceSort.NEWEST)
+                .build();
+    }
+    
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+}
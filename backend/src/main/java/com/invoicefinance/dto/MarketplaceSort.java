@@ -0,0 +1,10 @@
+package com.invoicefinance.dto;
+
+// Marketplace orderings. The offer-based sorts read the denormalized stats on invoices; listings
+// without offers (and sealed auctions) come last, newest first.
+public enum MarketplaceSort {
+    NEWEST,
+    MOST_OFFERS,
+    BEST_RATE,
+    LATEST_OFFER
+}
@@ -0,0 +1,34 @@
+package com.invoicefinance.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MarketplaceStreamEvent {
+    
+    public enum Type {
+        LISTED,
+        DELISTED,
+        OFFERS_CHANGED
+    }
+    
+    private Type type;
+    private String invoiceId;
+    private String invoiceNumber;
+    private String buyerName;
+    private String buyerGstin;
+    private BigDecimal invoiceAmount;
+    private BigDecimal requestedAmount;
+    private BigDecimal expectedInterestRate;
+    private String currency;
+    private Long activeOffers;
+    private LocalDateTime occurredAt;
+}
@@ -0,0 +1,24 @@
+package com.invoicefinance.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+// Percentile band of interestRatePa over every offer made in a bucket. A null bucket dimension
+// means the band covers all values of it; percentiles are null when the bucket has no offers.
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RateBandResponse {
+    private String tenorBucket;
+    private String amountBucket;
+    private String buyerGstin;
+    private long sampleCount;
+    private BigDecimal p10;
+    private BigDecimal p50;
+    private BigDecimal p90;
+}
@@ -0,0 +1,28 @@
+package com.invoicefinance.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Pushed to a lender when a newly listed invoice satisfies one or more of their saved searches
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SavedSearchMatch {
+    private List<String> savedSearchIds;
+    private List<String> savedSearchNames;
+    private String invoiceId;
+    private String invoiceNumber;
+    private String buyerName;
+    private String buyerGstin;
+    private BigDecimal invoiceAmount;
+    private BigDecimal requestedAmount;
+    private BigDecimal expectedInterestRate;
+    private LocalDateTime matchedAt;
+}
@@ -0,0 +1,40 @@
+package com.invoicefinance.dto;
+
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SavedSearchRequest {
+    @NotBlank(message = "Name is required")
+    @Size(max = 100, message = "Name must not exceed 100 characters")
+    private String name;
+    
+    @DecimalMin(value = "0.0", message = "Minimum amount cannot be negative")
+    private BigDecimal minAmount;
+    
+    @DecimalMin(value = "0.0", message = "Maximum amount cannot be negative")
+    private BigDecimal maxAmount;
+    
+    @Size(max = 15, message = "Buyer GSTIN must not exceed 15 characters")
+    private String buyerGstin;
+    
+    @DecimalMin(value = "0.0", message = "Minimum rate cannot be negative")
+    private BigDecimal minRate;
+    
+    @Positive(message = "Maximum tenor days must be positive")
+    private Integer maxTenorDays;
+    
+    @Size(max = 255, message = "Search text must not exceed 255 characters")
+    private String search;
+    
+    private Boolean notify;
+}
@@ -0,0 +1,27 @@
+package com.invoicefinance.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SavedSearchResponse {
+    private String id;
+    private String name;
+    private BigDecimal minAmount;
+    private BigDecimal maxAmount;
+    private String buyerGstin;
+    private BigDecimal minRate;
+    private Integer maxTenorDays;
+    private String search;
+    private boolean notify;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
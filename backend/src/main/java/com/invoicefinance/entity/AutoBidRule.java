@@ -0,0 +1,95 @@
+package com.invoicefinance.entity;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Set;
+
+@Entity
+@Table(name = "auto_bid_rules")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AutoBidRule {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+    
+    @NotBlank
+    @Size(max = 100)
+    @Column(nullable = false)
+    private String name;
+    
+    @Column(name = "min_amount", precision = 15, scale = 2)
+    private BigDecimal minAmount;
+    
+    @Column(name = "max_amount", precision = 15, scale = 2)
+    private BigDecimal maxAmount;
+    
+    // Empty means any buyer
+    @ElementCollection(fetch = FetchType.EAGER)
+    @CollectionTable(name = "auto_bid_rule_buyers", joinColumns = @JoinColumn(name = "rule_id"))
+    @Column(name = "buyer_gstin", nullable = false)
+    @Builder.Default
+    private Set<String> buyerGstins = new HashSet<>();
+    
+    @Column(name = "min_rate", precision = 5, scale = 2)
+    private BigDecimal minRate;
+    
+    @Column(name = "max_tenor_days")
+    private Integer maxTenorDays;
+    
+    @NotNull
+    @Column(name = "max_offer_amount", nullable = false, precision = 15, scale = 2)
+    private BigDecimal maxOfferAmount;
+    
+    @NotNull
+    @Column(name = "processing_fee", nullable = false, precision = 15, scale = 2)
+    @Builder.Default
+    private BigDecimal processingFee = BigDecimal.ZERO;
+    
+    @NotNull
+    @Column(name = "offer_validity_hours", nullable = false)
+    @Builder.Default
+    private Integer offerValidityHours = 72;
+    
+    // Cap on the lender's ACTIVE plus ACCEPTED offer amounts per buyer; null means uncapped
+    @Column(name = "max_exposure_per_buyer", precision = 15, scale = 2)
+    private BigDecimal maxExposurePerBuyer;
+    
+    @Column(nullable = false)
+    @Builder.Default
+    private boolean active = true;
+    
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+    
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+    
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        updatedAt = createdAt;
+    }
+    
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+}
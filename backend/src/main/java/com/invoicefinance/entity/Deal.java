@@ -11,6 +11,8 @@ import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 
 @Entity
 @Table(name = "deals")
@@ -55,6 +57,11 @@ public class Deal {
     @Builder.Default
     private ContactVisibility contactVisibility = ContactVisibility.MASKED;
     
+    // How a syndicated deal was split between its lenders; null for single-lender deals
+    @Enumerated(EnumType.STRING)
+    @Column(name = "allocation_strategy", length = 20)
+    private SyndicationAllocation allocationStrategy;
+    
     @CreatedDate
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
@@ -63,6 +70,12 @@ public class Deal {
     @Column(name = "updated_at", nullable = false)
     private LocalDateTime updatedAt;
     
+    // Relationships
+    @OneToMany(mappedBy = "deal", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
+    @OrderBy("id ASC")
+    @Builder.Default
+    private List<DealParticipation> participations = new ArrayList<>();
+    
     // Helper methods
     public boolean isActive() {
         return DealStatus.ACTIVE.equals(status);
@@ -72,6 +85,10 @@ public class Deal {
         return DealStatus.SETTLED.equals(status);
     }
     
+    public boolean isSyndicated() {
+        return allocationStrategy != null;
+    }
+    
     public boolean areContactsVisible() {
         return ContactVisibility.VISIBLE.equals(contactVisibility);
     }
@@ -0,0 +1,62 @@
+package com.invoicefinance.entity;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// One lender's share of a deal. A single-lender deal has one participation for the full offer; a
+// syndicated deal has one per allocated offer, with amount possibly below what the lender offered.
+@Entity
+@Table(name = "deal_participations")
+@EntityListeners(AuditingEntityListener.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DealParticipation {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @NotNull
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "deal_id", nullable = false)
+    private Deal deal;
+    
+    @NotNull
+    @OneToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "offer_id", nullable = false)
+    private FundingOffer offer;
+    
+    @NotNull
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "lender_user_id", nullable = false)
+    private User lenderUser;
+    
+    @NotNull
+    @DecimalMin(value = "0.01")
+    @Column(nullable = false, precision = 15, scale = 2)
+    private BigDecimal amount;
+    
+    @NotNull
+    @Column(name = "interest_rate_pa", nullable = false, precision = 5, scale = 2)
+    private BigDecimal interestRatePa;
+    
+    @NotNull
+    @Column(name = "processing_fee", nullable = false, precision = 15, scale = 2)
+    private BigDecimal processingFee;
+    
+    @CreatedDate
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+}
@@ -71,6 +71,11 @@ public class FundingOffer {
     @Builder.Default
     private FundingOfferStatus status = FundingOfferStatus.ACTIVE;
     
+    @Version
+    @Column(nullable = false)
+    @Builder.Default
+    private Long version = 0L;
+    
     @CreatedDate
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
@@ -90,6 +95,14 @@ public class FundingOffer {
                FundingOfferStatus.EXPIRED.equals(status);
     }
     
+    // ACTIVE offers past their deadline read as EXPIRED even before the expiry engine updates the row
+    public FundingOfferStatus effectiveStatus() {
+        if (FundingOfferStatus.ACTIVE.equals(status) && validUntil != null && !LocalDateTime.now().isBefore(validUntil)) {
+            return FundingOfferStatus.EXPIRED;
+        }
+        return status;
+    }
+    
     public boolean isAccepted() {
         return FundingOfferStatus.ACCEPTED.equals(status);
     }
@@ -110,6 +110,38 @@ public class Invoice {
     @Builder.Default
     private FinancingRequestStatus status = FinancingRequestStatus.DRAFT;
     
+    // Set when the invoice is listed as a sealed-bid auction; null for a regular listing
+    @Column(name = "auction_ends_at")
+    private LocalDateTime auctionEndsAt;
+    
+    // Syndicated listings can be filled by several lenders; fundedAmount is what has been allocated so
+    // far and only moves through InvoiceRepository.reserveFunding
+    @Column(nullable = false)
+    @Builder.Default
+    private boolean syndicated = false;
+    
+    @Column(name = "funded_amount", nullable = false, precision = 15, scale = 2)
+    @Builder.Default
+    private BigDecimal fundedAmount = BigDecimal.ZERO;
+    
+    // Active-offer stats, written only by set-based updates in the offer transactions (see
+    // FundingOfferBatchRepository.recordNewOffers and InvoiceRepository.refreshOfferStats); left
+    // empty while an auction is running
+    @Column(name = "offer_count", nullable = false, insertable = false, updatable = false)
+    @Builder.Default
+    private int offerCount = 0;
+    
+    @Column(name = "best_rate", precision = 5, scale = 2, insertable = false, updatable = false)
+    private BigDecimal bestRate;
+    
+    @Column(name = "last_offer_at", insertable = false, updatable = false)
+    private LocalDateTime lastOfferAt;
+    
+    @Version
+    @Column(nullable = false)
+    @Builder.Default
+    private Long version = 0L;
+    
     @CreatedDate
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
@@ -132,6 +164,10 @@ public class Invoice {
         return java.time.temporal.ChronoUnit.DAYS.between(invoiceDate, dueDate);
     }
     
+    public boolean isAuction() {
+        return auctionEndsAt != null;
+    }
+    
     public boolean isOverdue() {
         return LocalDate.now().isAfter(dueDate) && !isSettled();
     }
@@ -0,0 +1,74 @@
+package com.invoicefinance.entity;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "saved_searches")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SavedSearch {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+    
+    @NotBlank
+    @Size(max = 100)
+    @Column(nullable = false)
+    private String name;
+    
+    @Column(name = "min_amount", precision = 15, scale = 2)
+    private BigDecimal minAmount;
+    
+    @Column(name = "max_amount", precision = 15, scale = 2)
+    private BigDecimal maxAmount;
+    
+    @Size(max = 15)
+    @Column(name = "buyer_gstin")
+    private String buyerGstin;
+    
+    @Column(name = "min_rate", precision = 5, scale = 2)
+    private BigDecimal minRate;
+    
+    @Column(name = "max_tenor_days")
+    private Integer maxTenorDays;
+    
+    @Size(max = 255)
+    private String search;
+    
+    @Column(nullable = false)
+    @Builder.Default
+    private boolean notify = true;
+    
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+    
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+    
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        updatedAt = createdAt;
+    }
+    
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+}
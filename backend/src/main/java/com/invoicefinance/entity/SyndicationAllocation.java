@@ -0,0 +1,6 @@
+package com.invoicefinance.entity;
+
+public enum SyndicationAllocation {
+    BEST_RATE_FIRST,
+    PRO_RATA
+}
@@ -0,0 +1,13 @@
+package com.invoicefinance.event;
+
+import com.invoicefinance.entity.AutoBidRule;
+import lombok.Value;
+
+// Published when an auto-bid rule is created, edited or deleted so the engine can follow
+// committed changes. A deleted rule is carried with deleted = true.
+@Value
+public class AutoBidRuleChangedEvent {
+    
+    AutoBidRule rule;
+    boolean deleted;
+}
@@ -0,0 +1,35 @@
+package com.invoicefinance.event;
+
+import com.invoicefinance.dto.FundingOfferResponse;
+import com.invoicefinance.entity.FundingOfferStatus;
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+// Published inside the transaction that creates an offer or changes its status. Carries ids and a
+// response snapshot rather than entities so after-commit listeners never touch a lazy association
+// outside a session.
+@Value
+public class FundingOfferChangedEvent {
+    
+    Long offerId;
+    Long invoiceId;
+    Long lenderUserId;
+    FundingOfferStatus previousStatus;
+    FundingOfferStatus newStatus;
+    
+    // Terms of a newly activated offer; null for every other transition
+    FundingOfferResponse offer;
+    
+    public LocalDateTime getValidUntil() {
+        return offer != null ? offer.getValidUntil() : null;
+    }
+    
+    public boolean isActivated() {
+        return FundingOfferStatus.ACTIVE.equals(newStatus) && !FundingOfferStatus.ACTIVE.equals(previousStatus);
+    }
+    
+    public boolean isDeactivated() {
+        return FundingOfferStatus.ACTIVE.equals(previousStatus) && !FundingOfferStatus.ACTIVE.equals(newStatus);
+    }
+}
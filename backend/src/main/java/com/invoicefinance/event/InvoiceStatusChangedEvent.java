@@ -0,0 +1,23 @@
+package com.invoicefinance.event;
+
+import com.invoicefinance.entity.FinancingRequestStatus;
+import com.invoicefinance.entity.Invoice;
+import lombok.Value;
+
+// Published inside the transaction that changes an invoice's status. Marketplace read models
+// listen with @TransactionalEventListener so they only see committed changes.
+@Value
+public class InvoiceStatusChangedEvent {
+    
+    Invoice invoice;
+    FinancingRequestStatus previousStatus;
+    FinancingRequestStatus newStatus;
+    
+    public boolean isListed() {
+        return FinancingRequestStatus.OPEN.equals(newStatus) && !FinancingRequestStatus.OPEN.equals(previousStatus);
+    }
+    
+    public boolean isDelisted() {
+        return FinancingRequestStatus.OPEN.equals(previousStatus) && !FinancingRequestStatus.OPEN.equals(newStatus);
+    }
+}
@@ -0,0 +1,12 @@
+package com.invoicefinance.event;
+
+import com.invoicefinance.entity.KycStatus;
+import lombok.Value;
+
+// Published inside the transaction that changes a user's KYC status, from either KYC flow
+@Value
+public class KycStatusChangedEvent {
+    
+    Long userId;
+    KycStatus status;
+}
@@ -0,0 +1,12 @@
+package com.invoicefinance.event;
+
+import lombok.Value;
+
+// Published inside the transaction that changes an OPEN listing in place, without listing or
+// delisting it (e.g. an auction reverting to a regular listing)
+@Value
+public class ListingUpdatedEvent {
+    
+    Long invoiceId;
+    String buyerGstin;
+}
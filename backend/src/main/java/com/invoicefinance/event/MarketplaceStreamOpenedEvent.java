@@ -0,0 +1,10 @@
+package com.invoicefinance.event;
+
+import lombok.Value;
+
+// Published when a user opens a marketplace stream connection on this node, after it is registered
+@Value
+public class MarketplaceStreamOpenedEvent {
+    
+    Long userId;
+}
@@ -0,0 +1,13 @@
+package com.invoicefinance.event;
+
+import com.invoicefinance.entity.SavedSearch;
+import lombok.Value;
+
+// Published when a saved search is created, edited or deleted so the percolator can follow
+// committed changes. A deleted search is carried with deleted = true.
+@Value
+public class SavedSearchChangedEvent {
+    
+    SavedSearch savedSearch;
+    boolean deleted;
+}
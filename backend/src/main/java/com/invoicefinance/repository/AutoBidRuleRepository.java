@@ -0,0 +1,23 @@
+package com.invoicefinance.repository;
+
+import com.invoicefinance.entity.AutoBidRule;
+import com.invoicefinance.entity.User;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface AutoBidRuleRepository extends JpaRepository<AutoBidRule, Long> {
+    
+    List<AutoBidRule> findByUserOrderByCreatedAtDesc(User user);
+    
+    Optional<AutoBidRule> findByIdAndUser(Long id, User user);
+    
+    long countByUser(User user);
+    
+    @Query("SELECT DISTINCT r FROM AutoBidRule r LEFT JOIN FETCH r.buyerGstins WHERE r.active = true")
+    List<AutoBidRule> findAllActiveWithBuyers();
+}
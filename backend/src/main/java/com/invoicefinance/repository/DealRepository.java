@@ -4,10 +4,13 @@ import com.invoicefinance.entity.Deal;
 import com.invoicefinance.entity.DealStatus;
 import com.invoicefinance.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -17,7 +20,13 @@ public interface DealRepository extends JpaRepository<Deal, Long> {
     
     List<Deal> findByLenderUserOrderByCreatedAtDesc(User lenderUser);
     
-    @Query("SELECT d FROM Deal d WHERE (d.borrowerUser = :user OR d.lenderUser = :user) ORDER BY d.createdAt DESC")
+    // Includes syndicated deals the user participates in without being the lead lender. Both parties
+    // and the participations are fetched with the deals, since every list response renders them.
+    @Query("SELECT DISTINCT d FROM Deal d JOIN FETCH d.borrowerUser JOIN FETCH d.lenderUser " +
+           "LEFT JOIN FETCH d.participations " +
+           "WHERE d.borrowerUser = :user OR d.lenderUser = :user " +
+           "OR EXISTS (SELECT p FROM DealParticipation p WHERE p.deal = d AND p.lenderUser = :user) " +
+           "ORDER BY d.createdAt DESC")
     List<Deal> findByUser(@Param("user") User user);
     
     @Query("SELECT d FROM Deal d WHERE (d.borrowerUser = :user OR d.lenderUser = :user) AND d.status = :status ORDER BY d.createdAt DESC")
@@ -34,6 +43,30 @@ public interface DealRepository extends JpaRepository<Deal, Long> {
     
     @Query("SELECT COUNT(d) FROM Deal d WHERE d.lenderUser = :user AND d.status = :status")
     long countByLenderUserAndStatus(@Param("user") User user, @Param("status") DealStatus status);
+    
+    // Rows of [id, status, invoice_id, borrower_user_id, lender_user_id], locked in id order for the
+    // rest of the transaction so a batch of transitions is validated against the state it changes
+    @Query(value = "SELECT id, status, invoice_id, borrower_user_id, lender_user_id FROM deals " +
+                   "WHERE id IN (:ids) ORDER BY id FOR UPDATE", nativeQuery = true)
+    List<Object[]> lockForTransition(@Param("ids") Collection<Long> ids);
+    
+    // Rows of [dealId, lenderUserId] for every participation in the given deals
+    @Query("SELECT p.deal.id, p.lenderUser.id FROM DealParticipation p WHERE p.deal.id IN :dealIds")
+    List<Object[]> findParticipantLenderIds(@Param("dealIds") Collection<Long> dealIds);
+    
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("UPDATE Deal d SET d.status = :toStatus, d.updatedAt = :now " +
+           "WHERE d.id IN :ids AND d.status = :fromStatus")
+    int transitionStatuses(
+            @Param("ids") Collection<Long> ids,
+            @Param("fromStatus") DealStatus fromStatus,
+            @Param("toStatus") DealStatus toStatus,
+            @Param("now") LocalDateTime now
+    );
+    
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("UPDATE Deal d SET d.contactVisibility = 'VISIBLE' WHERE d.id IN :ids")
+    int revealContacts(@Param("ids") Collection<Long> ids);
 }
 
 
@@ -0,0 +1,44 @@
+package com.invoicefinance.repository;
+
+import com.invoicefinance.entity.DealStatus;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Append-only log of deal status transitions, written in the transaction that applies them.
+// actorUserId is null for transitions the system makes on its own.
+@Repository
+@RequiredArgsConstructor
+public class DealTransitionRepository {
+    
+    private static final String INSERT_SQL = "INSERT INTO deal_transitions " +
+            "(deal_id, from_status, to_status, actor_user_id, created_at) VALUES (?, ?, ?, ?, ?)";
+    
+    public record Transition(Long dealId, DealStatus fromStatus, DealStatus toStatus, Long actorUserId) {
+    }
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    public void insertAll(List<Transition> transitions, LocalDateTime now) {
+        if (transitions.isEmpty()) {
+            return;
+        }
+        Timestamp timestamp = Timestamp.valueOf(now);
+        jdbcTemplate.batchUpdate(INSERT_SQL, transitions, 500, (ps, transition) -> {
+            ps.setLong(1, transition.dealId());
+            ps.setString(2, transition.fromStatus().name());
+            ps.setString(3, transition.toStatus().name());
+            if (transition.actorUserId() != null) {
+                ps.setLong(4, transition.actorUserId());
+            } else {
+                ps.setNull(4, Types.BIGINT);
+            }
+            ps.setTimestamp(5, timestamp);
+        });
+    }
+}
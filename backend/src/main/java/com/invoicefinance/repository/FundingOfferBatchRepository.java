@@ -0,0 +1,96 @@
+package com.invoicefinance.repository;
+
+import com.invoicefinance.entity.FundingOffer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+// JDBC batch insert for funding offers. Hibernate cannot batch inserts of IDENTITY-keyed entities,
+// so bulk submissions go through here; generated ids are written back onto the given offers.
+// Also keeps the denormalized offer stats on invoices in step with new offers.
+@Repository
+@RequiredArgsConstructor
+public class FundingOfferBatchRepository {
+    
+    private static final String INSERT_SQL = "INSERT INTO funding_offers " +
+            "(invoice_id, lender_user_id, offer_amount, interest_rate_pa, processing_fee, tenor_days, " +
+            "valid_until, notes, status, version, created_at, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, 0, ?, ?)";
+    
+    // Atomic in-place increment; MySQL applies the assignments left to right on the locked row.
+    // Sealed auctions keep no public stats.
+    private static final String RECORD_OFFER_SQL = "UPDATE invoices SET offer_count = offer_count + 1, " +
+            "best_rate = CASE WHEN best_rate IS NULL OR ? < best_rate THEN ? ELSE best_rate END, " +
+            "last_offer_at = ? WHERE id = ? AND auction_ends_at IS NULL";
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    public void insertAll(List<FundingOffer> offers) {
+        if (offers.isEmpty()) {
+            return;
+        }
+        
+        LocalDateTime now = LocalDateTime.now();
+        Timestamp timestamp = Timestamp.valueOf(now);
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        
+        jdbcTemplate.batchUpdate(
+                connection -> connection.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        FundingOffer offer = offers.get(i);
+                        ps.setLong(1, offer.getInvoice().getId());
+                        ps.setLong(2, offer.getLenderUser().getId());
+                        ps.setBigDecimal(3, offer.getOfferAmount());
+                        ps.setBigDecimal(4, offer.getInterestRatePa());
+                        ps.setBigDecimal(5, offer.getProcessingFee());
+                        ps.setInt(6, offer.getTenorDays());
+                        ps.setTimestamp(7, Timestamp.valueOf(offer.getValidUntil()));
+                        ps.setString(8, offer.getNotes());
+                        ps.setString(9, offer.getStatus().name());
+                        ps.setTimestamp(10, timestamp);
+                        ps.setTimestamp(11, timestamp);
+                    }
+                    
+                    @Override
+                    public int getBatchSize() {
+                        return offers.size();
+                    }
+                },
+                keyHolder);
+        
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        for (int i = 0; i < offers.size(); i++) {
+            FundingOffer offer = offers.get(i);
+            offer.setId(((Number) keys.get(i).values().iterator().next()).longValue());
+            offer.setVersion(0L);
+            offer.setCreatedAt(now);
+            offer.setUpdatedAt(now);
+        }
+    }
+    
+    // Counts newly created offers into their invoices' offer_count, best_rate and last_offer_at
+    public void recordNewOffers(List<FundingOffer> offers) {
+        if (offers.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(RECORD_OFFER_SQL, offers, offers.size(), (ps, offer) -> {
+            ps.setBigDecimal(1, offer.getInterestRatePa());
+            ps.setBigDecimal(2, offer.getInterestRatePa());
+            ps.setTimestamp(3, Timestamp.valueOf(offer.getCreatedAt()));
+            ps.setLong(4, offer.getInvoice().getId());
+        });
+    }
+}
@@ -4,12 +4,15 @@ import com.invoicefinance.entity.FundingOffer;
 import com.invoicefinance.entity.FundingOfferStatus;
 import com.invoicefinance.entity.Invoice;
 import com.invoicefinance.entity.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -32,6 +35,73 @@ public interface FundingOfferRepository extends JpaRepository<FundingOffer, Long
     @Query("SELECT COUNT(fo) FROM FundingOffer fo WHERE fo.lenderUser = :user AND fo.status = :status")
     long countByLenderUserAndStatus(@Param("user") User user, @Param("status") FundingOfferStatus status);
     
+    // Rows of [offerId, lenderUserId] for the ACTIVE offers on an invoice other than the given one
+    @Query("SELECT fo.id, fo.lenderUser.id FROM FundingOffer fo " +
+           "WHERE fo.invoice.id = :invoiceId AND fo.status = 'ACTIVE' AND fo.id <> :offerId")
+    List<Object[]> findActiveSiblingOffers(@Param("invoiceId") Long invoiceId, @Param("offerId") Long offerId);
+    
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("UPDATE FundingOffer fo SET fo.status = 'ACCEPTED', fo.version = fo.version + 1, fo.updatedAt = :now " +
+           "WHERE fo.id = :offerId AND fo.status = 'ACTIVE' AND fo.validUntil > :now")
+    int acceptIfActive(@Param("offerId") Long offerId, @Param("now") LocalDateTime now);
+    
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("UPDATE FundingOffer fo SET fo.status = 'REJECTED', fo.version = fo.version + 1, fo.updatedAt = :now " +
+           "WHERE fo.invoice.id = :invoiceId AND fo.status = 'ACTIVE' AND fo.id <> :offerId")
+    int rejectActiveSiblings(@Param("invoiceId") Long invoiceId, @Param("offerId") Long offerId,
+                             @Param("now") LocalDateTime now);
+    
+    @Query("SELECT fo.id FROM FundingOffer fo WHERE fo.status = 'ACTIVE' AND fo.validUntil <= :now " +
+           "ORDER BY fo.validUntil")
+    List<Long> findExpiredOfferIds(@Param("now") LocalDateTime now, Pageable pageable);
+    
+    // Rows of [offerId, validUntil] for ACTIVE offers whose deadline falls in (from, to]
+    @Query("SELECT fo.id, fo.validUntil FROM FundingOffer fo " +
+           "WHERE fo.status = 'ACTIVE' AND fo.validUntil > :from AND fo.validUntil <= :to")
+    List<Object[]> findActiveDeadlinesBetween(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+    
+    // Rows of [offerId, invoiceId, lenderUserId]
+    @Query("SELECT fo.id, fo.invoice.id, fo.lenderUser.id FROM FundingOffer fo " +
+           "WHERE fo.id IN :ids AND fo.status = :status")
+    List<Object[]> findOfferPartiesByIdInAndStatus(@Param("ids") Collection<Long> ids,
+                                                   @Param("status") FundingOfferStatus status);
+    
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("UPDATE FundingOffer fo SET fo.status = 'EXPIRED', fo.version = fo.version + 1, fo.updatedAt = :now " +
+           "WHERE fo.id IN :ids AND fo.status = 'ACTIVE' AND fo.validUntil <= :now")
+    int expireDueOffers(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+    
+    @Query("SELECT fo.invoice.id FROM FundingOffer fo WHERE fo.lenderUser = :lender AND fo.invoice.id IN :invoiceIds")
+    List<Long> findInvoiceIdsOfferedByLender(@Param("lender") User lender,
+                                             @Param("invoiceIds") Collection<Long> invoiceIds);
+    
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("UPDATE FundingOffer fo SET fo.status = 'WITHDRAWN', fo.version = fo.version + 1, fo.updatedAt = :now " +
+           "WHERE fo.id IN :ids AND fo.lenderUser.id = :lenderUserId AND fo.status = 'ACTIVE'")
+    int withdrawActiveOffers(@Param("ids") Collection<Long> ids, @Param("lenderUserId") Long lenderUserId,
+                             @Param("now") LocalDateTime now);
+    
+    // Rows of [lenderUserId, totalOfferAmount] over the given lenders' offers on one buyer
+    @Query("SELECT fo.lenderUser.id, SUM(fo.offerAmount) FROM FundingOffer fo " +
+           "WHERE fo.invoice.buyerGstin = :buyerGstin AND fo.status IN :statuses AND fo.lenderUser.id IN :lenderIds " +
+           "GROUP BY fo.lenderUser.id")
+    List<Object[]> sumOfferAmountsByLenderForBuyer(@Param("buyerGstin") String buyerGstin,
+                                                   @Param("statuses") Collection<FundingOfferStatus> statuses,
+                                                   @Param("lenderIds") Collection<Long> lenderIds);
+    
+    // Rows of [id, interestRatePa, offerAmount, tenorDays, buyerGstin] of offers not yet counted in the
+    // rate distributions, oldest first. They stay locked for the rest of the transaction and rows
+    // locked by another sampler are skipped, so every offer is claimed exactly once.
+    @Query(value = "SELECT fo.id, fo.interest_rate_pa, fo.offer_amount, fo.tenor_days, i.buyer_gstin " +
+                   "FROM funding_offers fo JOIN invoices i ON i.id = fo.invoice_id " +
+                   "WHERE fo.rate_sampled = FALSE ORDER BY fo.id LIMIT :limit " +
+                   "FOR UPDATE OF fo SKIP LOCKED", nativeQuery = true)
+    List<Object[]> lockUnsampledRateSamples(@Param("limit") int limit);
+    
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query(value = "UPDATE funding_offers SET rate_sampled = TRUE WHERE id IN (:ids)", nativeQuery = true)
+    int markRateSampled(@Param("ids") Collection<Long> ids);
+    
     boolean existsByInvoiceAndLenderUser(Invoice invoice, User lenderUser);
 }
 
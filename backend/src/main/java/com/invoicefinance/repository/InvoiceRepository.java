@@ -1,36 +1,166 @@
 package com.invoicefinance.repository;
 
+import com.invoicefinance.dto.InvoiceListingRow;
 import com.invoicefinance.entity.FinancingRequestStatus;
 import com.invoicefinance.entity.Invoice;
 import com.invoicefinance.entity.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface InvoiceRepository extends JpaRepository<Invoice, Long> {
+
+    
+    String LISTING_ROW_SELECT = "SELECT new com.invoicefinance.dto.InvoiceListingRow(" +
+            "i.id, b.id, b.companyName, b.fullName, i.type, i.invoiceNumber, i.buyerName, i.buyerGstin, " +
+            "i.invoiceDate, i.dueDate, i.invoiceAmount, i.requestedAmount, i.minAcceptAmount, " +
+            "i.expectedInterestRate, i.currency, i.location, d.id, d.s3Key, o.id, " +
+            "i.status, i.auctionEndsAt, i.syndicated, i.fundedAmount, i.offerCount, i.bestRate, i.lastOfferAt, " +
+            "i.createdAt, i.updatedAt) " +
+            "FROM Invoice i JOIN i.borrowerUser b LEFT JOIN i.document d LEFT JOIN d.ownerUser o ";
+    
+    // Marketplace filters shared by every listing page and the listing count. Free-text search is
+    // matched by InvoiceSearchIndex and passed in as candidate ids; with searchAll set they are ignored
+    String OPEN_LISTING_FILTERS = "WHERE i.status = :status " +
+            "AND (:minAmount IS NULL OR i.invoiceAmount >= :minAmount) " +
+            "AND (:maxAmount IS NULL OR i.invoiceAmount <= :maxAmount) " +
+            "AND (:buyerGstin IS NULL OR i.buyerGstin = :buyerGstin) " +
+            "AND (:minRate IS NULL OR i.expectedInterestRate >= :minRate) " +
+            "AND (:maxTenorDays IS NULL OR FUNCTION('DATEDIFF', i.dueDate, i.invoiceDate) <= :maxTenorDays) " +
+            "AND (:searchAll = TRUE OR i.id IN :searchIds) ";
     
     List<Invoice> findByBorrowerUserOrderByCreatedAtDesc(User borrowerUser);
     
     List<Invoice> findByStatusOrderByCreatedAtDesc(FinancingRequestStatus status);
     
-    @Query("SELECT i FROM Invoice i WHERE i.status = :status " +
-           "AND (:minAmount IS NULL OR i.invoiceAmount >= :minAmount) " +
-           "AND (:maxAmount IS NULL OR i.invoiceAmount <= :maxAmount) " +
-           "AND (:buyerGstin IS NULL OR i.buyerGstin = :buyerGstin) " +
-           "AND (:search IS NULL OR LOWER(i.buyerName) LIKE LOWER(CONCAT('%', :search, '%')) " +
-           "    OR LOWER(i.invoiceNumber) LIKE LOWER(CONCAT('%', :search, '%'))) " +
-           "ORDER BY i.createdAt DESC")
-    List<Invoice> findOpenInvoicesWithFilters(
+    @Query("SELECT i FROM Invoice i JOIN FETCH i.borrowerUser WHERE i.status = :status")
+    List<Invoice> findByStatusWithBorrower(@Param("status") FinancingRequestStatus status);
+    
+    // Rows of [id, buyerName, buyerGstin]
+    @Query("SELECT i.id, i.buyerName, i.buyerGstin FROM Invoice i WHERE i.status = :status")
+    List<Object[]> findBuyerRowsByStatus(@Param("status") FinancingRequestStatus status);
+    
+    // Rows of [id, createdAt, invoiceAmount, expectedInterestRate, invoiceDate, dueDate, buyerGstin]
+    @Query("SELECT i.id, i.createdAt, i.invoiceAmount, i.expectedInterestRate, i.invoiceDate, i.dueDate, " +
+           "i.buyerGstin FROM Invoice i WHERE i.status = :status")
+    List<Object[]> findIndexRowsByStatus(@Param("status") FinancingRequestStatus status);
+    
+    // Rows of [id, invoiceAmount, invoiceDate, dueDate, type, currency, location, buyerName]
+    @Query("SELECT i.id, i.invoiceAmount, i.invoiceDate, i.dueDate, i.type, i.currency, i.location, i.buyerName " +
+           "FROM Invoice i WHERE i.status = :status")
+    List<Object[]> findFacetRowsByStatus(@Param("status") FinancingRequestStatus status);
+    
+    // Keyset page: pass the last row of the previous page as (cursorCreatedAt, cursorId), or nulls for the first page
+    @Query(LISTING_ROW_SELECT + OPEN_LISTING_FILTERS +
+           "AND (:cursorCreatedAt IS NULL OR i.createdAt < :cursorCreatedAt " +
+           "    OR (i.createdAt = :cursorCreatedAt AND i.id < :cursorId)) " +
+           "ORDER BY i.createdAt DESC, i.id DESC")
+    List<InvoiceListingRow> findOpenListingRowsPage(
+            @Param("status") FinancingRequestStatus status,
+            @Param("minAmount") BigDecimal minAmount,
+            @Param("maxAmount") BigDecimal maxAmount,
+            @Param("buyerGstin") String buyerGstin,
+            @Param("minRate") BigDecimal minRate,
+            @Param("maxTenorDays") Integer maxTenorDays,
+            @Param("searchAll") boolean searchAll,
+            @Param("searchIds") Collection<Long> searchIds,
+            @Param("cursorCreatedAt") LocalDateTime cursorCreatedAt,
+            @Param("cursorId") Long cursorId,
+            Pageable pageable
+    );
+    
+    // Keyset pages ordered by a denormalized offer stat, then (createdAt DESC, id DESC). The cursor
+    // carries the last row's stat; missing stats sort as :noRate / :never so they come last.
+    @Query(LISTING_ROW_SELECT + OPEN_LISTING_FILTERS +
+           "AND (:cursorId IS NULL OR i.offerCount < :cursorCount OR (i.offerCount = :cursorCount " +
+           "    AND (i.createdAt < :cursorCreatedAt OR (i.createdAt = :cursorCreatedAt AND i.id < :cursorId)))) " +
+           "ORDER BY i.offerCount DESC, i.createdAt DESC, i.id DESC")
+    List<InvoiceListingRow> findOpenListingRowsByOfferCount(
+            @Param("status") FinancingRequestStatus status,
+            @Param("minAmount") BigDecimal minAmount,
+            @Param("maxAmount") BigDecimal maxAmount,
+            @Param("buyerGstin") String buyerGstin,
+            @Param("minRate") BigDecimal minRate,
+            @Param("maxTenorDays") Integer maxTenorDays,
+            @Param("searchAll") boolean searchAll,
+            @Param("searchIds") Collection<Long> searchIds,
+            @Param("cursorCount") Integer cursorCount,
+            @Param("cursorCreatedAt") LocalDateTime cursorCreatedAt,
+            @Param("cursorId") Long cursorId,
+            Pageable pageable
+    );
+    
+    @Query(LISTING_ROW_SELECT + OPEN_LISTING_FILTERS +
+           "AND (:cursorId IS NULL OR COALESCE(i.bestRate, :noRate) > :cursorRate " +
+           "    OR (COALESCE(i.bestRate, :noRate) = :cursorRate " +
+           "    AND (i.createdAt < :cursorCreatedAt OR (i.createdAt = :cursorCreatedAt AND i.id < :cursorId)))) " +
+           "ORDER BY COALESCE(i.bestRate, :noRate) ASC, i.createdAt DESC, i.id DESC")
+    List<InvoiceListingRow> findOpenListingRowsByBestRate(
+            @Param("status") FinancingRequestStatus status,
+            @Param("minAmount") BigDecimal minAmount,
+            @Param("maxAmount") BigDecimal maxAmount,
+            @Param("buyerGstin") String buyerGstin,
+            @Param("minRate") BigDecimal minRate,
+            @Param("maxTenorDays") Integer maxTenorDays,
+            @Param("searchAll") boolean searchAll,
+            @Param("searchIds") Collection<Long> searchIds,
+            @Param("noRate") BigDecimal noRate,
+            @Param("cursorRate") BigDecimal cursorRate,
+            @Param("cursorCreatedAt") LocalDateTime cursorCreatedAt,
+            @Param("cursorId") Long cursorId,
+            Pageable pageable
+    );
+    
+    @Query(LISTING_ROW_SELECT + OPEN_LISTING_FILTERS +
+           "AND (:cursorId IS NULL OR COALESCE(i.lastOfferAt, :never) < :cursorLastOfferAt " +
+           "    OR (COALESCE(i.lastOfferAt, :never) = :cursorLastOfferAt " +
+           "    AND (i.createdAt < :cursorCreatedAt OR (i.createdAt = :cursorCreatedAt AND i.id < :cursorId)))) " +
+           "ORDER BY COALESCE(i.lastOfferAt, :never) DESC, i.createdAt DESC, i.id DESC")
+    List<InvoiceListingRow> findOpenListingRowsByLastOffer(
             @Param("status") FinancingRequestStatus status,
             @Param("minAmount") BigDecimal minAmount,
             @Param("maxAmount") BigDecimal maxAmount,
             @Param("buyerGstin") String buyerGstin,
-            @Param("search") String search
+            @Param("minRate") BigDecimal minRate,
+            @Param("maxTenorDays") Integer maxTenorDays,
+            @Param("searchAll") boolean searchAll,
+            @Param("searchIds") Collection<Long> searchIds,
+            @Param("never") LocalDateTime never,
+            @Param("cursorLastOfferAt") LocalDateTime cursorLastOfferAt,
+            @Param("cursorCreatedAt") LocalDateTime cursorCreatedAt,
+            @Param("cursorId") Long cursorId,
+            Pageable pageable
+    );
+    
+    @Query(LISTING_ROW_SELECT + "WHERE i.id IN :ids")
+    List<InvoiceListingRow> findListingRowsByIdIn(@Param("ids") Collection<Long> ids);
+    
+    // Every invoice in the given status, newest first; unpaginated
+    @Query(LISTING_ROW_SELECT + "WHERE i.status = :status ORDER BY i.createdAt DESC, i.id DESC")
+    List<InvoiceListingRow> findListingRowsByStatus(@Param("status") FinancingRequestStatus status);
+    
+    @Query(LISTING_ROW_SELECT + "WHERE b.id = :borrowerId ORDER BY i.createdAt DESC")
+    List<InvoiceListingRow> findListingRowsByBorrowerId(@Param("borrowerId") Long borrowerId);
+    
+    @Query("SELECT COUNT(i) FROM Invoice i " + OPEN_LISTING_FILTERS)
+    long countOpenInvoicesWithFilters(
+            @Param("status") FinancingRequestStatus status,
+            @Param("minAmount") BigDecimal minAmount,
+            @Param("maxAmount") BigDecimal maxAmount,
+            @Param("buyerGstin") String buyerGstin,
+            @Param("minRate") BigDecimal minRate,
+            @Param("maxTenorDays") Integer maxTenorDays,
+            @Param("searchAll") boolean searchAll,
+            @Param("searchIds") Collection<Long> searchIds
     );
     
     @Query("SELECT COUNT(i) FROM Invoice i WHERE i.borrowerUser = :user")
@@ -38,6 +168,49 @@ public interface InvoiceRepository extends JpaRepository<Invoice, Long> {
     
     @Query("SELECT COUNT(i) FROM Invoice i WHERE i.borrowerUser = :user AND i.status = :status")
     long countByBorrowerUserAndStatus(@Param("user") User user, @Param("status") FinancingRequestStatus status);
+    
+    // Compare-and-set on status: only one concurrent caller can move an invoice out of expectedStatus
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("UPDATE Invoice i SET i.status = :newStatus, i.version = i.version + 1, i.updatedAt = :now " +
+           "WHERE i.id = :id AND i.status = :expectedStatus")
+    int transitionStatus(
+            @Param("id") Long id,
+            @Param("expectedStatus") FinancingRequestStatus expectedStatus,
+            @Param("newStatus") FinancingRequestStatus newStatus,
+            @Param("now") LocalDateTime now
+    );
+    
+    // Moves the invoices behind a batch of deal transitions to the status their deals now imply
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("UPDATE Invoice i SET i.status = :status, i.version = i.version + 1, i.updatedAt = :now " +
+           "WHERE i.id IN :ids AND i.status <> :status")
+    int updateStatuses(
+            @Param("ids") Collection<Long> ids,
+            @Param("status") FinancingRequestStatus status,
+            @Param("now") LocalDateTime now
+    );
+    
+    // Adds to fundedAmount only while the invoice is open and the total stays within requestedAmount,
+    // so concurrent allocations can never fund more than was asked for
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("UPDATE Invoice i SET i.fundedAmount = i.fundedAmount + :amount, i.version = i.version + 1, i.updatedAt = :now " +
+           "WHERE i.id = :id AND i.status = 'OPEN' AND i.fundedAmount + :amount <= i.requestedAmount")
+    int reserveFunding(@Param("id") Long id, @Param("amount") BigDecimal amount, @Param("now") LocalDateTime now);
+    
+    // Recomputes the active-offer stats of the given invoices in one statement after offers leave ACTIVE
+    // (or when an auction reverts to a regular listing). lastOfferAt records when an offer was last
+    // made, so it is left alone; sealed auctions keep no stats.
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Invoice i SET " +
+           "i.offerCount = (SELECT COUNT(fo) FROM FundingOffer fo WHERE fo.invoice = i AND fo.status = 'ACTIVE'), " +
+           "i.bestRate = (SELECT MIN(fo.interestRatePa) FROM FundingOffer fo WHERE fo.invoice = i AND fo.status = 'ACTIVE') " +
+           "WHERE i.id IN :ids AND i.auctionEndsAt IS NULL")
+    int refreshOfferStats(@Param("ids") Collection<Long> ids);
+    
+    // Rows of [id, auctionEndsAt] for open auctions ending at or before :until
+    @Query("SELECT i.id, i.auctionEndsAt FROM Invoice i " +
+           "WHERE i.status = 'OPEN' AND i.auctionEndsAt IS NOT NULL AND i.auctionEndsAt <= :until")
+    List<Object[]> findOpenAuctionsEndingBy(@Param("until") LocalDateTime until);
 }
 
 
@@ -0,0 +1,42 @@
+package com.invoicefinance.repository;
+
+import com.invoicefinance.entity.KycStatus;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Append-only log of KYC status changes. Rows are written in the changing transaction and stamped
+// with database time, so every node can poll the same clock for what changed since its last look.
+@Repository
+@RequiredArgsConstructor
+public class KycStatusChangeRepository {
+    
+    public record Change(long id, long userId) {
+    }
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    public void record(Long userId, KycStatus status) {
+        jdbcTemplate.update("INSERT INTO kyc_status_changes (user_id, status) VALUES (?, ?)",
+                userId, status.name());
+    }
+    
+    public LocalDateTime currentTime() {
+        return jdbcTemplate.queryForObject("SELECT CURRENT_TIMESTAMP", Timestamp.class).toLocalDateTime();
+    }
+    
+    public List<Change> findChangedSince(LocalDateTime since) {
+        return jdbcTemplate.query(
+                "SELECT id, user_id FROM kyc_status_changes WHERE changed_at >= ? ORDER BY id",
+                (rs, rowNum) -> new Change(rs.getLong(1), rs.getLong(2)),
+                Timestamp.valueOf(since));
+    }
+    
+    public int deleteChangedBefore(LocalDateTime cutoff) {
+        return jdbcTemplate.update("DELETE FROM kyc_status_changes WHERE changed_at < ?", Timestamp.valueOf(cutoff));
+    }
+}
@@ -0,0 +1,53 @@
+package com.invoicefinance.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Offer rate counts per RateDistributionService bucket and basis point, shared by every node. Writers
+// only ever add the counts of offers they sampled, so concurrent writes from any number of nodes sum
+// instead of overwriting. Rows are stamped with database time for nodes polling what changed.
+@Repository
+@RequiredArgsConstructor
+public class RateSketchCountRepository {
+    
+    private static final String ADD_SQL = "INSERT INTO rate_sketch_counts (bucket_key, basis_points, sample_count) " +
+            "VALUES (?, ?, ?) ON DUPLICATE KEY UPDATE sample_count = sample_count + VALUES(sample_count)";
+    
+    public record Count(String bucketKey, int basisPoints, long sampleCount) {
+    }
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    public LocalDateTime currentTime() {
+        return jdbcTemplate.queryForObject("SELECT CURRENT_TIMESTAMP", Timestamp.class).toLocalDateTime();
+    }
+    
+    public List<Count> findAll() {
+        return jdbcTemplate.query("SELECT bucket_key, basis_points, sample_count FROM rate_sketch_counts",
+                (rs, rowNum) -> new Count(rs.getString(1), rs.getInt(2), rs.getLong(3)));
+    }
+    
+    public List<Count> findChangedSince(LocalDateTime since) {
+        return jdbcTemplate.query(
+                "SELECT bucket_key, basis_points, sample_count FROM rate_sketch_counts WHERE updated_at >= ?",
+                (rs, rowNum) -> new Count(rs.getString(1), rs.getInt(2), rs.getLong(3)),
+                Timestamp.valueOf(since));
+    }
+    
+    // Deltas should be in key order so concurrent writers lock rows in the same order
+    public void addAll(List<Count> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(ADD_SQL, deltas, 500, (ps, delta) -> {
+            ps.setString(1, delta.bucketKey());
+            ps.setInt(2, delta.basisPoints());
+            ps.setLong(3, delta.sampleCount());
+        });
+    }
+}
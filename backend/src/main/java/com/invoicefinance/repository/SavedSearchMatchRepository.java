@@ -0,0 +1,82 @@
+package com.invoicefinance.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+// Saved search matches awaiting delivery. A (search, invoice) pair is stored once, so percolating
+// the same listing twice is harmless; rows are marked delivered once pushed to a stream.
+@Repository
+@RequiredArgsConstructor
+public class SavedSearchMatchRepository {
+    
+    private static final String INSERT_SQL = "INSERT IGNORE INTO saved_search_matches " +
+            "(saved_search_id, user_id, invoice_id, matched_at) VALUES (:searchId, :userId, :invoiceId, :matchedAt)";
+    
+    // Only matches on invoices still open are worth delivering
+    private static final String UNDELIVERED_SQL = "SELECT m.id, m.user_id, m.saved_search_id, s.name, m.invoice_id, " +
+            "i.invoice_number, i.buyer_name, i.buyer_gstin, i.invoice_amount, i.requested_amount, " +
+            "i.expected_interest_rate, m.matched_at " +
+            "FROM saved_search_matches m " +
+            "JOIN saved_searches s ON s.id = m.saved_search_id " +
+            "JOIN invoices i ON i.id = m.invoice_id " +
+            "WHERE m.user_id IN (:userIds) AND m.delivered_at IS NULL AND i.status = 'OPEN' " +
+            "ORDER BY m.id LIMIT :limit";
+    
+    public record NewMatch(Long savedSearchId, Long userId, Long invoiceId) {
+    }
+    
+    public record PendingMatch(long id, Long userId, Long savedSearchId, String savedSearchName, Long invoiceId,
+                               String invoiceNumber, String buyerName, String buyerGstin, BigDecimal invoiceAmount,
+                               BigDecimal requestedAmount, BigDecimal expectedInterestRate, LocalDateTime matchedAt) {
+    }
+    
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    
+    public void insertAll(List<NewMatch> matches, LocalDateTime matchedAt) {
+        if (matches.isEmpty()) {
+            return;
+        }
+        Timestamp timestamp = Timestamp.valueOf(matchedAt);
+        MapSqlParameterSource[] batch = matches.stream()
+                .map(match -> new MapSqlParameterSource()
+                        .addValue("searchId", match.savedSearchId())
+                        .addValue("userId", match.userId())
+                        .addValue("invoiceId", match.invoiceId())
+                        .addValue("matchedAt", timestamp))
+                .toArray(MapSqlParameterSource[]::new);
+        jdbcTemplate.batchUpdate(INSERT_SQL, batch);
+    }
+    
+    public List<PendingMatch> findUndelivered(Collection<Long> userIds, int limit) {
+        if (userIds.isEmpty()) {
+            return List.of();
+        }
+        return jdbcTemplate.query(UNDELIVERED_SQL,
+                new MapSqlParameterSource().addValue("userIds", userIds).addValue("limit", limit),
+                (rs, rowNum) -> new PendingMatch(rs.getLong(1), rs.getLong(2), rs.getLong(3), rs.getString(4),
+                        rs.getLong(5), rs.getString(6), rs.getString(7), rs.getString(8), rs.getBigDecimal(9),
+                        rs.getBigDecimal(10), rs.getBigDecimal(11), rs.getTimestamp(12).toLocalDateTime()));
+    }
+    
+    public int markDelivered(Collection<Long> ids, LocalDateTime deliveredAt) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        return jdbcTemplate.update("UPDATE saved_search_matches SET delivered_at = :deliveredAt " +
+                        "WHERE id IN (:ids) AND delivered_at IS NULL",
+                new MapSqlParameterSource().addValue("ids", ids).addValue("deliveredAt", Timestamp.valueOf(deliveredAt)));
+    }
+    
+    public int deleteMatchedBefore(LocalDateTime cutoff) {
+        return jdbcTemplate.update("DELETE FROM saved_search_matches WHERE matched_at < :cutoff",
+                new MapSqlParameterSource().addValue("cutoff", Timestamp.valueOf(cutoff)));
+    }
+}
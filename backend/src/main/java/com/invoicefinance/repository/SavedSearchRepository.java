@@ -0,0 +1,23 @@
+package com.invoicefinance.repository;
+
+import com.invoicefinance.entity.SavedSearch;
+import com.invoicefinance.entity.User;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface SavedSearchRepository extends JpaRepository<SavedSearch, Long> {
+    
+    List<SavedSearch> findByUserOrderByCreatedAtDesc(User user);
+    
+    Optional<SavedSearch> findByIdAndUser(Long id, User user);
+    
+    long countByUser(User user);
+    
+    @Query("SELECT s FROM SavedSearch s WHERE s.notify = true")
+    List<SavedSearch> findAllNotifying();
+}
@@ -7,6 +7,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -26,6 +27,14 @@ public interface UserRepository extends JpaRepository<User, Long> {
     
     @Query("SELECT u FROM User u JOIN u.roles r WHERE r IN :roles")
     List<User> findByRoles(@Param("roles") List<UserRole> roles);
+    
+    // (id, kycStatus) pairs for the given users
+    @Query("SELECT u.id, u.kycStatus FROM User u WHERE u.id IN :ids")
+    List<Object[]> findKycStatusesByIdIn(@Param("ids") Collection<Long> ids);
+    
+    // Locks the user's row for the rest of the transaction, so work done per user queues behind it
+    @Query(value = "SELECT id FROM users WHERE id = :id FOR UPDATE", nativeQuery = true)
+    Long lockById(@Param("id") Long id);
 }
 
 
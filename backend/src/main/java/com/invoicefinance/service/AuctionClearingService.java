@@ -0,0 +1,184 @@
+package com.invoicefinance.service;
+
+import com.invoicefinance.event.InvoiceStatusChangedEvent;
+import com.invoicefinance.exception.BadRequestException;
+import com.invoicefinance.repository.InvoiceRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Closes sealed-bid auctions at their deadline. Pending closes sit in a DelayQueue ordered by end
+// time; a single dispatcher thread drains everything that has come due in one go and hands each
+// close to a fixed pool of clearing workers, so thousands of auctions ending on the same minute
+// queue up behind the pool instead of stalling request threads or opening thousands of transactions
+// at once. Only auctions ending within the lookahead are held in memory; a periodic sweep loads the
+// next window and also catches closes that were missed (restarts, other nodes, failed attempts).
+// Clearing itself is a set of conditional updates, so a close that another node already performed
+// is a no-op here.
+@Service
+@Slf4j
+public class AuctionClearingService {
+    
+    private static final int MAX_ATTEMPTS = 5;
+    
+    private record AuctionClose(Long invoiceId, long dueAtMillis, int attempt) implements Delayed {
+        
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(dueAtMillis - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+        }
+        
+        @Override
+        public int compareTo(Delayed other) {
+            AuctionClose that = (AuctionClose) other;
+            int byTime = Long.compare(dueAtMillis, that.dueAtMillis);
+            return byTime != 0 ? byTime : invoiceId.compareTo(that.invoiceId);
+        }
+    }
+    
+    private final InvoiceRepository invoiceRepository;
+    private final DealService dealService;
+    private final long lookaheadMillis;
+    private final int drainBatchSize;
+    
+    private final DelayQueue<AuctionClose> closes = new DelayQueue<>();
+    private final Set<Long> pending = ConcurrentHashMap.newKeySet();
+    private final ExecutorService workers;
+    private final Thread dispatcher;
+    
+    public AuctionClearingService(
+            InvoiceRepository invoiceRepository,
+            DealService dealService,
+            @Value("${app.auctions.clearing-threads:4}") int clearingThreads,
+            @Value("${app.auctions.drain-batch-size:1000}") int drainBatchSize,
+            @Value("${app.auctions.sweep-interval-ms:60000}") long sweepIntervalMillis) {
+        this.invoiceRepository = invoiceRepository;
+        this.dealService = dealService;
+        this.drainBatchSize = Math.max(1, drainBatchSize);
+        // Two sweep intervals ahead, so an auction is always queued at least one sweep before it ends
+        this.lookaheadMillis = 2 * Math.max(1000, sweepIntervalMillis);
+        
+        AtomicInteger counter = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(Math.max(1, clearingThreads), runnable -> {
+            Thread thread = new Thread(runnable, "auction-clearing-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.dispatcher = new Thread(this::dispatch, "auction-dispatcher");
+        this.dispatcher.setDaemon(true);
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        dispatcher.start();
+        sweep();
+    }
+    
+    @Scheduled(fixedDelayString = "${app.auctions.sweep-interval-ms:60000}",
+               initialDelayString = "${app.auctions.sweep-interval-ms:60000}")
+    public void sweep() {
+        LocalDateTime until = LocalDateTime.now().plusNanos(lookaheadMillis * 1_000_000L);
+        int queued = 0;
+        for (Object[] row : invoiceRepository.findOpenAuctionsEndingBy(until)) {
+            if (schedule((Long) row[0], toMillis((LocalDateTime) row[1]), 0)) {
+                queued++;
+            }
+        }
+        if (queued > 0) {
+            log.info("Queued {} auction closes up to {} ({} pending)", queued, until, pending.size());
+        }
+    }
+    
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onInvoiceStatusChanged(InvoiceStatusChangedEvent event) {
+        // Delisted auctions are left queued; clearing skips invoices that are no longer open
+        if (!event.isListed() || !event.getInvoice().isAuction()) {
+            return;
+        }
+        long dueAtMillis = toMillis(event.getInvoice().getAuctionEndsAt());
+        if (dueAtMillis - System.currentTimeMillis() <= lookaheadMillis) {
+            schedule(event.getInvoice().getId(), dueAtMillis, 0);
+        }
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        dispatcher.interrupt();
+        workers.shutdownNow();
+    }
+    
+    private boolean schedule(Long invoiceId, long dueAtMillis, int attempt) {
+        if (attempt == 0 && !pending.add(invoiceId)) {
+            return false;
+        }
+        closes.put(new AuctionClose(invoiceId, dueAtMillis, attempt));
+        return true;
+    }
+    
+    private void dispatch() {
+        List<AuctionClose> due = new ArrayList<>();
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                due.add(closes.take());
+                closes.drainTo(due, drainBatchSize - 1);
+                for (AuctionClose close : due) {
+                    workers.execute(() -> clear(close));
+                }
+                due.clear();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException e) {
+                log.error("Auction dispatcher failed to hand off {} closes: {}", due.size(), e.getMessage(), e);
+                due.clear();
+            }
+        }
+    }
+    
+    private void clear(AuctionClose close) {
+        try {
+            dealService.clearAuction(close.invoiceId());
+            pending.remove(close.invoiceId());
+        } catch (BadRequestException e) {
+            // Lost a race with a withdrawal or another node; re-reading the book usually resolves it
+            retry(close, e);
+        } catch (RuntimeException e) {
+            log.error("Failed to clear auction for invoice {}: {}", close.invoiceId(), e.getMessage(), e);
+            retry(close, e);
+        }
+    }
+    
+    private void retry(AuctionClose close, RuntimeException cause) {
+        if (close.attempt() + 1 >= MAX_ATTEMPTS) {
+            // Released so a later sweep can pick it up again
+            pending.remove(close.invoiceId());
+            log.warn("Giving up on auction close for invoice {} after {} attempts: {}",
+                    close.invoiceId(), MAX_ATTEMPTS, cause.getMessage());
+            return;
+        }
+        long backoffMillis = 1000L << close.attempt();
+        schedule(close.invoiceId(), System.currentTimeMillis() + backoffMillis, close.attempt() + 1);
+    }
+    
+    private static long toMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,276 @@
+package com.invoicefinance.service;
+
+import com.invoicefinance.dto.BulkOfferResponse;
+import com.invoicefinance.dto.CreateFundingOfferForm;
+import com.invoicefinance.entity.AutoBidRule;
+import com.invoicefinance.entity.Invoice;
+import com.invoicefinance.entity.User;
+import com.invoicefinance.event.AutoBidRuleChangedEvent;
+import com.invoicefinance.event.InvoiceStatusChangedEvent;
+import com.invoicefinance.repository.AutoBidRuleRepository;
+import com.invoicefinance.repository.FundingOfferRepository;
+import com.invoicefinance.repository.UserRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+// Places offers on behalf of lenders whose auto-bid rules match a newly listed invoice. Rules are
+// compiled into ListingPredicateIndex shards, matched in parallel once there are enough of them,
+// and the resulting offers go through OfferService like any other submission.
+@Component
+@Slf4j
+public class AutoBidEngine {
+    
+    private static final BigDecimal MIN_SYNDICATED_TICKET = new BigDecimal("0.01");
+    
+    // What the engine needs from a rule once it has matched
+    private record BidTerms(Long lenderUserId, String name, BigDecimal maxOfferAmount, BigDecimal processingFee,
+                            int offerValidityHours, BigDecimal maxExposurePerBuyer) {
+    }
+    
+    private final AutoBidRuleRepository ruleRepository;
+    private final FundingOfferRepository offerRepository;
+    private final UserRepository userRepository;
+    private final OfferService offerService;
+    
+    private final List<ListingPredicateIndex<BidTerms>> shards = new ArrayList<>();
+    private final ExecutorService matchers;
+    private final ExecutorService bidders;
+    private final int parallelThreshold;
+    
+    public AutoBidEngine(
+            AutoBidRuleRepository ruleRepository,
+            FundingOfferRepository offerRepository,
+            UserRepository userRepository,
+            OfferService offerService,
+            @Value("${app.auto-bid.shards:4}") int shardCount,
+            @Value("${app.auto-bid.parallel-threshold:2000}") int parallelThreshold,
+            @Value("${app.auto-bid.bidder-threads:2}") int bidderThreads) {
+        this.ruleRepository = ruleRepository;
+        this.offerRepository = offerRepository;
+        this.userRepository = userRepository;
+        this.offerService = offerService;
+        this.parallelThreshold = parallelThreshold;
+        
+        int count = Math.max(1, shardCount);
+        for (int i = 0; i < count; i++) {
+            shards.add(new ListingPredicateIndex<>());
+        }
+        this.matchers = Executors.newFixedThreadPool(count, daemonThreads("auto-bid-matcher"));
+        this.bidders = Executors.newFixedThreadPool(Math.max(1, bidderThreads), daemonThreads("auto-bid-bidder"));
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        shards.forEach(ListingPredicateIndex::beginRebuild);
+        
+        List<AutoBidRule> rules;
+        try {
+            rules = ruleRepository.findAllActiveWithBuyers();
+        } catch (RuntimeException e) {
+            shards.forEach(ListingPredicateIndex::abortRebuild);
+            throw e;
+        }
+        
+        Map<Integer, List<ListingPredicateIndex.Entry<BidTerms>>> byShard = rules.stream()
+                .map(rule -> new ListingPredicateIndex.Entry<BidTerms>(rule.getId(), criteriaOf(rule), termsOf(rule)))
+                .collect(Collectors.groupingBy(entry -> shardIndex(entry.id())));
+        for (int i = 0; i < shards.size(); i++) {
+            shards.get(i).completeRebuild(byShard.getOrDefault(i, List.of()));
+        }
+        
+        log.info("Auto-bid engine rebuilt with {} active rules across {} shards", rules.size(), shards.size());
+    }
+    
+    // Rule changes committed on other nodes only reach this node's shards through a rebuild
+    @Scheduled(fixedDelayString = "${app.auto-bid.resync-interval-ms:60000}",
+               initialDelayString = "${app.auto-bid.resync-interval-ms:60000}")
+    public void resync() {
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            log.warn("Auto-bid rule rebuild failed: {}", e.getMessage());
+        }
+    }
+    
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onRuleChanged(AutoBidRuleChangedEvent event) {
+        AutoBidRule rule = event.getRule();
+        ListingPredicateIndex<BidTerms> shard = shards.get(shardIndex(rule.getId()));
+        if (event.isDeleted() || !rule.isActive()) {
+            shard.remove(rule.getId());
+        } else {
+            shard.put(rule.getId(), criteriaOf(rule), termsOf(rule));
+        }
+    }
+    
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onInvoiceStatusChanged(InvoiceStatusChangedEvent event) {
+        if (!event.isListed()) {
+            return;
+        }
+        // Bids are placed off the listing thread, each in its own transaction
+        Invoice invoice = event.getInvoice();
+        bidders.execute(() -> {
+            try {
+                bid(invoice);
+            } catch (RuntimeException e) {
+                log.error("Auto-bidding failed for invoice {}: {}", invoice.getId(), e.getMessage(), e);
+            }
+        });
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        bidders.shutdownNow();
+        matchers.shutdownNow();
+    }
+    
+    private void bid(Invoice invoice) {
+        List<ListingPredicateIndex.Entry<BidTerms>> matches = match(invoice);
+        if (matches.isEmpty()) {
+            return;
+        }
+        
+        // A lender can hold one offer per invoice, so each lender bids under their oldest matching rule
+        Long borrowerUserId = invoice.getBorrowerUser().getId();
+        Map<Long, ListingPredicateIndex.Entry<BidTerms>> byLender = new HashMap<>();
+        for (ListingPredicateIndex.Entry<BidTerms> match : matches) {
+            Long lenderUserId = match.payload().lenderUserId();
+            if (!lenderUserId.equals(borrowerUserId)) {
+                byLender.merge(lenderUserId, match, (a, b) -> a.id() <= b.id() ? a : b);
+            }
+        }
+        if (byLender.isEmpty()) {
+            return;
+        }
+        
+        Map<Long, BigDecimal> exposures = currentExposures(invoice, byLender);
+        Map<Long, User> lenders = userRepository.findAllById(byLender.keySet()).stream()
+                .filter(User::isLender)
+                .collect(Collectors.toMap(User::getId, user -> user));
+        
+        int placed = 0;
+        for (Map.Entry<Long, ListingPredicateIndex.Entry<BidTerms>> entry : byLender.entrySet()) {
+            User lender = lenders.get(entry.getKey());
+            BidTerms terms = entry.getValue().payload();
+            BigDecimal amount = offerAmount(invoice, terms, exposures.getOrDefault(entry.getKey(), BigDecimal.ZERO));
+            if (lender == null || amount == null) {
+                continue;
+            }
+            
+            CreateFundingOfferForm form = new CreateFundingOfferForm(
+                    invoice.getId().toString(),
+                    amount,
+                    invoice.getExpectedInterestRate(),
+                    terms.processingFee(),
+                    (int) Math.max(1, ChronoUnit.DAYS.between(invoice.getInvoiceDate(), invoice.getDueDate())),
+                    // Auction offers have to outlive the close to be considered
+                    (invoice.isAuction() ? invoice.getAuctionEndsAt() : LocalDateTime.now())
+                            .plusHours(terms.offerValidityHours()),
+                    "Placed by auto-bid rule \"" + terms.name() + "\"");
+            
+            try {
+                // The exposure read above is only a first cut; capped bids are re-checked under a lock
+                BulkOfferResponse result = terms.maxExposurePerBuyer() != null && invoice.getBuyerGstin() != null
+                        ? offerService.createOfferWithinExposure(lender, form, invoice.getBuyerGstin(),
+                                terms.maxExposurePerBuyer())
+                        : offerService.createOffers(lender, List.of(form));
+                placed += result.getSucceeded();
+            } catch (RuntimeException e) {
+                log.warn("Auto-bid rule {} could not bid on invoice {}: {}",
+                        entry.getValue().id(), invoice.getId(), e.getMessage());
+            }
+        }
+        
+        log.info("Auto-bidding placed {} offers on invoice {} from {} matching rules", placed, invoice.getId(), matches.size());
+    }
+    
+    private List<ListingPredicateIndex.Entry<BidTerms>> match(Invoice invoice) {
+        int totalRules = shards.stream().mapToInt(ListingPredicateIndex::size).sum();
+        if (totalRules < parallelThreshold) {
+            List<ListingPredicateIndex.Entry<BidTerms>> matches = new ArrayList<>();
+            shards.forEach(shard -> matches.addAll(shard.match(invoice)));
+            return matches;
+        }
+        
+        List<CompletableFuture<List<ListingPredicateIndex.Entry<BidTerms>>>> futures = shards.stream()
+                .map(shard -> CompletableFuture.supplyAsync(() -> shard.match(invoice), matchers))
+                .collect(Collectors.toList());
+        return futures.stream()
+                .flatMap(future -> future.join().stream())
+                .collect(Collectors.toList());
+    }
+    
+    // Sum of each capped lender's ACTIVE and ACCEPTED offers on this buyer, in one grouped query
+    private Map<Long, BigDecimal> currentExposures(Invoice invoice, Map<Long, ListingPredicateIndex.Entry<BidTerms>> byLender) {
+        List<Long> cappedLenders = byLender.entrySet().stream()
+                .filter(entry -> entry.getValue().payload().maxExposurePerBuyer() != null)
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+        if (cappedLenders.isEmpty() || invoice.getBuyerGstin() == null) {
+            return Map.of();
+        }
+        
+        Map<Long, BigDecimal> exposures = new HashMap<>();
+        for (Object[] row : offerRepository.sumOfferAmountsByLenderForBuyer(
+                invoice.getBuyerGstin(), OfferService.EXPOSURE_STATUSES, cappedLenders)) {
+            exposures.put((Long) row[0], (BigDecimal) row[1]);
+        }
+        return exposures;
+    }
+    
+    // The largest amount the rule allows, or null when that falls below what the borrower accepts
+    // (any positive ticket on a syndicated listing)
+    private BigDecimal offerAmount(Invoice invoice, BidTerms terms, BigDecimal exposure) {
+        BigDecimal amount = invoice.getRequestedAmount().min(terms.maxOfferAmount());
+        if (terms.maxExposurePerBuyer() != null) {
+            amount = amount.min(terms.maxExposurePerBuyer().subtract(exposure));
+        }
+        BigDecimal minimum = invoice.isSyndicated() ? MIN_SYNDICATED_TICKET : invoice.getMinAcceptAmount();
+        return amount.compareTo(minimum) < 0 ? null : amount;
+    }
+    
+    private int shardIndex(Long ruleId) {
+        return (int) Math.floorMod(ruleId, (long) shards.size());
+    }
+    
+    private static ListingPredicateIndex.Criteria criteriaOf(AutoBidRule rule) {
+        return new ListingPredicateIndex.Criteria(rule.getMinAmount(), rule.getMaxAmount(), rule.getBuyerGstins(),
+                rule.getMinRate(), rule.getMaxTenorDays(), null);
+    }
+    
+    private static BidTerms termsOf(AutoBidRule rule) {
+        return new BidTerms(rule.getUser().getId(), rule.getName(), rule.getMaxOfferAmount(), rule.getProcessingFee(),
+                rule.getOfferValidityHours(), rule.getMaxExposurePerBuyer());
+    }
+    
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,145 @@
+package com.invoicefinance.service;
+
+import com.invoicefinance.dto.AutoBidRuleRequest;
+import com.invoicefinance.dto.AutoBidRuleResponse;
+import com.invoicefinance.entity.AutoBidRule;
+import com.invoicefinance.entity.User;
+import com.invoicefinance.event.AutoBidRuleChangedEvent;
+import com.invoicefinance.exception.BadRequestException;
+import com.invoicefinance.exception.ResourceNotFoundException;
+import com.invoicefinance.repository.AutoBidRuleRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AutoBidRuleService {
+    
+    private static final int MAX_RULES_PER_USER = 100;
+    
+    private final AutoBidRuleRepository ruleRepository;
+    private final UserService userService;
+    private final ApplicationEventPublisher eventPublisher;
+    
+    @Transactional
+    public AutoBidRuleResponse createRule(AutoBidRuleRequest request) {
+        User currentUser = userService.getCurrentUser();
+        
+        if (!currentUser.isLender()) {
+            throw new BadRequestException("Only lenders can create auto-bid rules");
+        }
+        
+        if (ruleRepository.countByUser(currentUser) >= MAX_RULES_PER_USER) {
+            throw new BadRequestException("You can have at most " + MAX_RULES_PER_USER + " auto-bid rules");
+        }
+        
+        AutoBidRule rule = AutoBidRule.builder()
+                .user(currentUser)
+                .build();
+        applyRequest(rule, request);
+        
+        rule = ruleRepository.save(rule);
+        eventPublisher.publishEvent(new AutoBidRuleChangedEvent(rule, false));
+        
+        log.info("Created auto-bid rule with ID: {} for lender: {}", rule.getId(), currentUser.getId());
+        return mapToRuleResponse(rule);
+    }
+    
+    @Transactional
+    public AutoBidRuleResponse updateRule(Long id, AutoBidRuleRequest request) {
+        User currentUser = userService.getCurrentUser();
+        
+        AutoBidRule rule = ruleRepository.findByIdAndUser(id, currentUser)
+                .orElseThrow(() -> new ResourceNotFoundException("Auto-bid rule not found"));
+        applyRequest(rule, request);
+        
+        rule = ruleRepository.save(rule);
+        eventPublisher.publishEvent(new AutoBidRuleChangedEvent(rule, false));
+        
+        return mapToRuleResponse(rule);
+    }
+    
+    @Transactional
+    public void deleteRule(Long id) {
+        User currentUser = userService.getCurrentUser();
+        
+        AutoBidRule rule = ruleRepository.findByIdAndUser(id, currentUser)
+                .orElseThrow(() -> new ResourceNotFoundException("Auto-bid rule not found"));
+        
+        ruleRepository.delete(rule);
+        eventPublisher.publishEvent(new AutoBidRuleChangedEvent(rule, true));
+    }
+    
+    @Transactional(readOnly = true)
+    public List<AutoBidRuleResponse> getMyRules() {
+        User currentUser = userService.getCurrentUser();
+        
+        return ruleRepository.findByUserOrderByCreatedAtDesc(currentUser).stream()
+                .map(this::mapToRuleResponse)
+                .collect(Collectors.toList());
+    }
+    
+    private void applyRequest(AutoBidRule rule, AutoBidRuleRequest request) {
+        if (request.getMinAmount() != null && request.getMaxAmount() != null
+                && request.getMinAmount().compareTo(request.getMaxAmount()) > 0) {
+            throw new BadRequestException("Minimum amount cannot exceed maximum amount");
+        }
+        
+        if (request.getMaxExposurePerBuyer() != null
+                && request.getMaxExposurePerBuyer().compareTo(request.getMaxOfferAmount()) < 0) {
+            throw new BadRequestException("Maximum exposure per buyer cannot be below the maximum offer amount");
+        }
+        
+        Set<String> buyerGstins = request.getBuyerGstins() == null ? Set.of() : request.getBuyerGstins().stream()
+                .filter(gstin -> gstin != null && !gstin.isBlank())
+                .map(gstin -> gstin.trim().toUpperCase(Locale.ROOT))
+                .collect(Collectors.toSet());
+        
+        rule.setName(request.getName().trim());
+        rule.setMinAmount(request.getMinAmount());
+        rule.setMaxAmount(request.getMaxAmount());
+        rule.getBuyerGstins().clear();
+        rule.getBuyerGstins().addAll(buyerGstins);
+        rule.setMinRate(request.getMinRate());
+        rule.setMaxTenorDays(request.getMaxTenorDays());
+        rule.setMaxOfferAmount(request.getMaxOfferAmount());
+        rule.setProcessingFee(request.getProcessingFee() != null ? request.getProcessingFee() : BigDecimal.ZERO);
+        if (request.getOfferValidityHours() != null) {
+            rule.setOfferValidityHours(request.getOfferValidityHours());
+        }
+        rule.setMaxExposurePerBuyer(request.getMaxExposurePerBuyer());
+        if (request.getActive() != null) {
+            rule.setActive(request.getActive());
+        }
+    }
+    
+    private AutoBidRuleResponse mapToRuleResponse(AutoBidRule rule) {
+        return AutoBidRuleResponse.builder()
+                .id(rule.getId().toString())
+                .name(rule.getName())
+                .minAmount(rule.getMinAmount())
+                .maxAmount(rule.getMaxAmount())
+                .buyerGstins(new HashSet<>(rule.getBuyerGstins()))
+                .minRate(rule.getMinRate())
+                .maxTenorDays(rule.getMaxTenorDays())
+                .maxOfferAmount(rule.getMaxOfferAmount())
+                .processingFee(rule.getProcessingFee())
+                .offerValidityHours(rule.getOfferValidityHours())
+                .maxExposurePerBuyer(rule.getMaxExposurePerBuyer())
+                .active(rule.isActive())
+                .createdAt(rule.getCreatedAt())
+                .updatedAt(rule.getUpdatedAt())
+                .build();
+    }
+}
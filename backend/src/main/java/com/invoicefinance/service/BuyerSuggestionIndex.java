@@ -0,0 +1,304 @@
+package com.invoicefinance.service;
+
+import com.invoicefinance.dto.BuyerSuggestion;
+import com.invoicefinance.entity.FinancingRequestStatus;
+import com.invoicefinance.entity.Invoice;
+import com.invoicefinance.event.InvoiceStatusChangedEvent;
+import com.invoicefinance.repository.InvoiceRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Autocomplete over distinct (buyerName, buyerGstin) pairs weighted by open-listing count.
+// Entries live in two sorted key arrays (by name and by GSTIN), so a prefix lookup is a binary
+// search followed by a short contiguous scan. Weights change in place as invoices are listed or
+// closed; only a buyer seen for the first time shifts the arrays. The index is rebuilt from the
+// database periodically, which drops buyers left with no open listings and picks up listings
+// committed on other nodes.
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class BuyerSuggestionIndex {
+    
+    private static final char KEY_SEPARATOR = '\u0000';
+    private static final int MAX_SCAN = 5_000;
+    
+    private final InvoiceRepository invoiceRepository;
+    
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final SortedKeys byName = new SortedKeys();
+    private final SortedKeys byGstin = new SortedKeys();
+    private final List<Buyer> buyers = new ArrayList<>();
+    
+    // Changes that arrive while a rebuild is loading, by invoice; replayed on top of the load
+    private Map<Long, PendingChange> pendingChanges;
+    
+    private static final class Buyer {
+        private final String buyerName;
+        private final String buyerGstin;
+        private int openListings;
+        
+        private Buyer(String buyerName, String buyerGstin) {
+            this.buyerName = buyerName;
+            this.buyerGstin = buyerGstin;
+        }
+    }
+    
+    private record Listing(String buyerName, String buyerGstin) {
+    }
+    
+    private record PendingChange(Listing listing, boolean open) {
+    }
+    
+    public List<BuyerSuggestion> suggest(String prefix, int limit) {
+        String normalized = normalize(prefix);
+        if (normalized.isEmpty()) {
+            return List.of();
+        }
+        
+        lock.readLock().lock();
+        try {
+            // Heaviest-last min-heap of buyer ids; a buyer can match by name and GSTIN at once
+            PriorityQueue<Integer> top = new PriorityQueue<>(limit + 1,
+                    Comparator.comparingInt((Integer id) -> buyers.get(id).openListings)
+                            .thenComparing(id -> buyers.get(id).buyerName, Comparator.reverseOrder()));
+            collect(byName, normalized, top, limit);
+            collect(byGstin, normalized, top, limit);
+            
+            BuyerSuggestion[] suggestions = new BuyerSuggestion[top.size()];
+            for (int i = suggestions.length - 1; i >= 0; i--) {
+                Buyer buyer = buyers.get(top.poll());
+                suggestions[i] = BuyerSuggestion.builder()
+                        .buyerName(buyer.buyerName)
+                        .buyerGstin(buyer.buyerGstin)
+                        .openListings(buyer.openListings)
+                        .build();
+            }
+            return Arrays.asList(suggestions);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onInvoiceStatusChanged(InvoiceStatusChangedEvent event) {
+        Invoice invoice = event.getInvoice();
+        if (event.isListed() || event.isDelisted()) {
+            apply(invoice.getId(), new Listing(invoice.getBuyerName(), invoice.getBuyerGstin()), event.isListed());
+        }
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        rebuild();
+    }
+    
+    @Scheduled(fixedDelayString = "${app.marketplace.buyer-suggestions.rebuild-interval-ms:60000}",
+               initialDelayString = "${app.marketplace.buyer-suggestions.rebuild-interval-ms:60000}")
+    public void reconcile() {
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            log.warn("Buyer suggestion index rebuild failed: {}", e.getMessage());
+        }
+    }
+    
+    // Suggestions keep being served from the current arrays until the fresh load is swapped in
+    public synchronized void rebuild() {
+        lock.writeLock().lock();
+        try {
+            pendingChanges = new HashMap<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        
+        Map<Long, Listing> open = new HashMap<>();
+        try {
+            for (Object[] row : invoiceRepository.findBuyerRowsByStatus(FinancingRequestStatus.OPEN)) {
+                open.put((Long) row[0], new Listing((String) row[1], (String) row[2]));
+            }
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                pendingChanges = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+        
+        lock.writeLock().lock();
+        try {
+            // The load may or may not already reflect a buffered change, so each is applied by
+            // invoice id only where it still makes a difference
+            pendingChanges.forEach((invoiceId, change) -> {
+                if (change.open()) {
+                    open.putIfAbsent(invoiceId, change.listing());
+                } else {
+                    open.remove(invoiceId);
+                }
+            });
+            pendingChanges = null;
+            
+            // Built from scratch, so buyers with no open listings left are dropped
+            Map<String, Buyer> fresh = new HashMap<>();
+            for (Listing listing : open.values()) {
+                String gstin = gstinOf(listing.buyerGstin());
+                fresh.computeIfAbsent(nameKey(listing.buyerName(), gstin),
+                        key -> new Buyer(listing.buyerName().trim(), gstin)).openListings++;
+            }
+            
+            buyers.clear();
+            TreeMap<String, Integer> names = new TreeMap<>();
+            TreeMap<String, Integer> gstins = new TreeMap<>();
+            fresh.forEach((nameKey, buyer) -> {
+                int buyerId = buyers.size();
+                buyers.add(buyer);
+                names.put(nameKey, buyerId);
+                if (buyer.buyerGstin != null) {
+                    gstins.put(gstinKey(buyer.buyerName, buyer.buyerGstin), buyerId);
+                }
+            });
+            byName.load(names);
+            byGstin.load(gstins);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        
+        log.info("Buyer suggestion index rebuilt with {} buyers", buyers.size());
+    }
+    
+    private void apply(Long invoiceId, Listing listing, boolean open) {
+        lock.writeLock().lock();
+        try {
+            if (pendingChanges != null) {
+                pendingChanges.put(invoiceId, new PendingChange(listing, open));
+            }
+            adjust(listing.buyerName(), listing.buyerGstin(), open ? 1 : -1);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    private void adjust(String buyerName, String buyerGstin, int change) {
+        String gstin = gstinOf(buyerGstin);
+        String nameKey = nameKey(buyerName, gstin);
+        
+        int buyerId = byName.find(nameKey);
+        if (buyerId < 0) {
+            if (change <= 0) {
+                return;
+            }
+            buyerId = buyers.size();
+            buyers.add(new Buyer(buyerName.trim(), gstin));
+            byName.insert(nameKey, buyerId);
+            if (gstin != null) {
+                byGstin.insert(gstinKey(buyerName, gstin), buyerId);
+            }
+        }
+        
+        // Buyers that drop to zero are skipped until the next rebuild drops them
+        Buyer buyer = buyers.get(buyerId);
+        buyer.openListings = Math.max(0, buyer.openListings + change);
+    }
+    
+    private void collect(SortedKeys keys, String prefix, PriorityQueue<Integer> top, int limit) {
+        // Every visited key counts toward MAX_SCAN, including buyers with no open listings left,
+        // so a short prefix never walks an unbounded range
+        int start = keys.lowerBound(prefix);
+        int end = Math.min(keys.size, start + MAX_SCAN);
+        for (int i = start; i < end && keys.keys[i].startsWith(prefix); i++) {
+            int buyerId = keys.buyerIds[i];
+            if (buyers.get(buyerId).openListings == 0 || top.contains(buyerId)) {
+                continue;
+            }
+            top.offer(buyerId);
+            if (top.size() > limit) {
+                top.poll();
+            }
+        }
+    }
+    
+    private static String gstinOf(String buyerGstin) {
+        return buyerGstin == null || buyerGstin.isBlank() ? null : buyerGstin.trim();
+    }
+    
+    private static String nameKey(String buyerName, String gstin) {
+        return normalize(buyerName) + KEY_SEPARATOR + (gstin != null ? gstin.toLowerCase(Locale.ROOT) : "");
+    }
+    
+    private static String gstinKey(String buyerName, String gstin) {
+        return gstin.toLowerCase(Locale.ROOT) + KEY_SEPARATOR + normalize(buyerName);
+    }
+    
+    private static String normalize(String value) {
+        return value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+    }
+    
+    private static final class SortedKeys {
+        private String[] keys = new String[256];
+        private int[] buyerIds = new int[256];
+        private int size;
+        
+        int lowerBound(String key) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (keys[mid].compareTo(key) < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+        
+        int find(String key) {
+            int position = lowerBound(key);
+            return position < size && keys[position].equals(key) ? buyerIds[position] : -1;
+        }
+        
+        void insert(String key, int buyerId) {
+            int position = lowerBound(key);
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+                buyerIds = Arrays.copyOf(buyerIds, size * 2);
+            }
+            System.arraycopy(keys, position, keys, position + 1, size - position);
+            System.arraycopy(buyerIds, position, buyerIds, position + 1, size - position);
+            keys[position] = key;
+            buyerIds[position] = buyerId;
+            size++;
+        }
+        
+        // Replaces the contents with the given keys, already in order
+        void load(TreeMap<String, Integer> sorted) {
+            int capacity = Math.max(256, Integer.highestOneBit(Math.max(1, sorted.size())) << 1);
+            keys = new String[capacity];
+            buyerIds = new int[capacity];
+            size = 0;
+            for (Map.Entry<String, Integer> entry : sorted.entrySet()) {
+                keys[size] = entry.getKey();
+                buyerIds[size] = entry.getValue();
+                size++;
+            }
+        }
+    }
+}
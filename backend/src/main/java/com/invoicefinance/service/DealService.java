@@ -1,20 +1,38 @@
 package com.invoicefinance.service;
 
+import com.invoicefinance.dto.BulkDealTransitionResponse;
 import com.invoicefinance.dto.ContactInfo;
+import com.invoicefinance.dto.DealParticipationResponse;
 import com.invoicefinance.dto.DealResponse;
+import com.invoicefinance.dto.DealTransitionItem;
+import com.invoicefinance.dto.DealTransitionResult;
 import com.invoicefinance.dto.UserResponse;
 import com.invoicefinance.entity.*;
+import com.invoicefinance.event.FundingOfferChangedEvent;
+import com.invoicefinance.event.InvoiceStatusChangedEvent;
+import com.invoicefinance.event.ListingUpdatedEvent;
 import com.invoicefinance.exception.BadRequestException;
 import com.invoicefinance.exception.ResourceNotFoundException;
 import com.invoicefinance.repository.DealRepository;
 import com.invoicefinance.repository.FundingOfferRepository;
+import com.invoicefinance.repository.InvoiceRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -24,9 +42,16 @@ public class DealService {
     
     private final DealRepository dealRepository;
     private final FundingOfferRepository offerRepository;
+    private final InvoiceRepository invoiceRepository;
     private final UserService userService;
     private final InvoiceService invoiceService;
     private final KycService kycService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final SyndicationAllocator syndicationAllocator;
+    private final DealTransitionService dealTransitionService;
+    
+    @Value("${app.syndication.default-allocation:BEST_RATE_FIRST}")
+    private SyndicationAllocation defaultAllocation;
     
     @Transactional
     public DealResponse acceptOffer(Long offerId) {
@@ -48,41 +73,195 @@ public class DealService {
             throw new BadRequestException("Offer has expired");
         }
         
-        // Mark offer as accepted
-        offer.setStatus(FundingOfferStatus.ACCEPTED);
-        offerRepository.save(offer);
+        if (offer.getInvoice().isAuction()) {
+            throw new BadRequestException("Offers on an auction are accepted automatically when it closes");
+        }
+        
+        // Syndicated listings take offers below the minimum; one of those alone cannot close the invoice
+        if (offer.getOfferAmount().compareTo(offer.getInvoice().getMinAcceptAmount()) < 0) {
+            throw new BadRequestException("Offer is below the minimum accept amount; close the syndicate instead");
+        }
+        
+        Deal deal = closeInvoice(offer.getInvoice().getId(),
+                List.of(new SyndicationAllocator.Allocation(offer, offer.getOfferAmount())), null, LocalDateTime.now());
+        return mapToDealResponse(deal);
+    }
+    
+    // Closes a syndicated listing by splitting the requested amount across its active offers with the
+    // given strategy (or the configured default). Lenders left out, or only partly used, keep the
+    // remainder of their offer free; offers that get nothing are rejected like any other sibling.
+    @Transactional
+    public DealResponse syndicate(Long invoiceId, SyndicationAllocation strategy) {
+        Invoice invoice = invoiceRepository.findById(invoiceId)
+                .orElseThrow(() -> new ResourceNotFoundException("Invoice not found"));
+        
+        User currentUser = userService.getCurrentUser();
+        
+        if (!invoice.getBorrowerUser().getId().equals(currentUser.getId())) {
+            throw new BadRequestException("You can only close syndicates on your own invoices");
+        }
+        
+        if (!invoice.isSyndicated()) {
+            throw new BadRequestException("Invoice is not listed for syndicated funding");
+        }
+        
+        if (!FinancingRequestStatus.OPEN.equals(invoice.getStatus())) {
+            throw new BadRequestException("Invoice is no longer open for offers");
+        }
+        
+        if (invoice.isAuction()) {
+            throw new BadRequestException("Offers on an auction are accepted automatically when it closes");
+        }
+        
+        LocalDateTime now = LocalDateTime.now();
+        SyndicationAllocation allocation = strategy != null ? strategy : defaultAllocation;
+        List<SyndicationAllocator.Allocation> allocations = allocateSyndicate(invoice, allocation, now);
+        if (allocations.isEmpty()) {
+            throw new BadRequestException("Active offers do not add up to the minimum accept amount");
+        }
+        
+        Deal deal = closeInvoice(invoiceId, allocations, allocation, now);
+        return mapToDealResponse(deal);
+    }
+    
+    // Clears a sealed-bid auction at its deadline: the active offer with the lowest effective annual
+    // cost wins (earliest, then lowest id on ties), or for a syndicated listing the default allocation
+    // is applied, and the invoice closes through the same conditional updates as a manual accept.
+    // Returns the deal id, or empty when there was nothing to clear. An auction that drew no usable
+    // offers reverts to a regular listing the borrower can accept from.
+    @Transactional
+    public Optional<Long> clearAuction(Long invoiceId) {
+        Invoice invoice = invoiceRepository.findById(invoiceId)
+                .orElseThrow(() -> new ResourceNotFoundException("Invoice not found"));
+        
+        LocalDateTime now = LocalDateTime.now();
+        if (!FinancingRequestStatus.OPEN.equals(invoice.getStatus()) || !invoice.isAuction()
+                || invoice.getAuctionEndsAt().isAfter(now)) {
+            return Optional.empty();
+        }
+        
+        List<SyndicationAllocator.Allocation> allocations;
+        if (invoice.isSyndicated()) {
+            allocations = allocateSyndicate(invoice, defaultAllocation, now);
+        } else {
+            allocations = activeOffers(invoice, now).stream()
+                    .filter(offer -> offer.getOfferAmount().compareTo(invoice.getMinAcceptAmount()) >= 0)
+                    .min(SyndicationAllocator.BEST_FIRST)
+                    .map(offer -> List.of(new SyndicationAllocator.Allocation(offer, offer.getOfferAmount())))
+                    .orElse(List.of());
+        }
+        
+        if (allocations.isEmpty()) {
+            invoice.setAuctionEndsAt(null);
+            invoiceRepository.save(invoice);
+            invoiceRepository.refreshOfferStats(List.of(invoiceId));
+            eventPublisher.publishEvent(new ListingUpdatedEvent(invoiceId, invoice.getBuyerGstin()));
+            log.info("Auction for invoice {} closed without usable offers; it stays listed", invoiceId);
+            return Optional.empty();
+        }
+        
+        Deal deal = closeInvoice(invoiceId, allocations, invoice.isSyndicated() ? defaultAllocation : null, now);
+        
+        log.info("Cleared auction for invoice {}: {} offers won, deal {}", invoiceId, allocations.size(), deal.getId());
+        return Optional.of(deal.getId());
+    }
+    
+    // Empty when the active offers cannot reach the borrower's minimum
+    private List<SyndicationAllocator.Allocation> allocateSyndicate(
+            Invoice invoice, SyndicationAllocation strategy, LocalDateTime now) {
+        List<SyndicationAllocator.Allocation> allocations = syndicationAllocator.allocate(
+                activeOffers(invoice, now), invoice.getRequestedAmount(), strategy);
+        BigDecimal total = allocations.stream()
+                .map(SyndicationAllocator.Allocation::amount)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        return total.compareTo(invoice.getMinAcceptAmount()) < 0 ? List.of() : allocations;
+    }
+    
+    private List<FundingOffer> activeOffers(Invoice invoice, LocalDateTime now) {
+        return offerRepository.findByInvoiceAndStatusOrderByCreatedAtDesc(invoice, FundingOfferStatus.ACTIVE).stream()
+                .filter(offer -> offer.getValidUntil().isAfter(now))
+                .collect(Collectors.toList());
+    }
+    
+    // Reserves each allocation against the invoice's remaining capacity, accepts its offer, claims the
+    // invoice and rejects the remaining offers, all with conditional updates, then creates the deal with
+    // one participation per allocation. The first allocation is the lead lender. Any failed condition
+    // throws and rolls the whole close back.
+    private Deal closeInvoice(Long invoiceId, List<SyndicationAllocator.Allocation> allocations,
+                              SyndicationAllocation strategy, LocalDateTime now) {
+        for (SyndicationAllocator.Allocation allocation : allocations) {
+            if (invoiceRepository.reserveFunding(invoiceId, allocation.amount(), now) == 0) {
+                throw new BadRequestException("Invoice is no longer open for offers");
+            }
+            // The offer may have been withdrawn or expired since it was read
+            if (offerRepository.acceptIfActive(allocation.offer().getId(), now) == 0) {
+                throw new BadRequestException("Offer is no longer active");
+            }
+        }
+        
+        // Of any concurrent closes, only one can move the invoice out of OPEN
+        if (invoiceRepository.transitionStatus(invoiceId, FinancingRequestStatus.OPEN,
+                FinancingRequestStatus.OFFER_ACCEPTED, now) == 0) {
+            throw new BadRequestException("Invoice is no longer open for offers");
+        }
         
-        // Update invoice status
-        Invoice invoice = offer.getInvoice();
-        invoice.setStatus(FinancingRequestStatus.OFFER_ACCEPTED);
+        // Accepted offers are no longer ACTIVE, so this rejects exactly the ones left out
+        Long leadOfferId = allocations.get(0).offer().getId();
+        List<Object[]> siblings = offerRepository.findActiveSiblingOffers(invoiceId, leadOfferId);
+        int rejected = offerRepository.rejectActiveSiblings(invoiceId, leadOfferId, now);
+        invoiceRepository.refreshOfferStats(List.of(invoiceId));
+        
+        // The conditional updates cleared the persistence context; reload what the deal references
+        Invoice invoice = invoiceRepository.findById(invoiceId)
+                .orElseThrow(() -> new ResourceNotFoundException("Invoice not found"));
+        Map<Long, FundingOffer> accepted = offerRepository.findAllById(allocations.stream()
+                        .map(allocation -> allocation.offer().getId())
+                        .collect(Collectors.toList())).stream()
+                .collect(Collectors.toMap(FundingOffer::getId, offer -> offer));
+        FundingOffer lead = accepted.get(leadOfferId);
+        
+        eventPublisher.publishEvent(new InvoiceStatusChangedEvent(
+                invoice, FinancingRequestStatus.OPEN, FinancingRequestStatus.OFFER_ACCEPTED));
+        for (FundingOffer offer : accepted.values()) {
+            eventPublisher.publishEvent(new FundingOfferChangedEvent(
+                    offer.getId(), invoiceId, offer.getLenderUser().getId(),
+                    FundingOfferStatus.ACTIVE, FundingOfferStatus.ACCEPTED, null));
+        }
+        for (Object[] sibling : siblings) {
+            eventPublisher.publishEvent(new FundingOfferChangedEvent(
+                    (Long) sibling[0], invoiceId, (Long) sibling[1],
+                    FundingOfferStatus.ACTIVE, FundingOfferStatus.REJECTED, null));
+        }
         
         // Create deal
         Deal deal = Deal.builder()
                 .invoice(invoice)
-                .lenderUser(offer.getLenderUser())
-                .borrowerUser(currentUser)
-                .selectedOffer(offer)
+                .lenderUser(lead.getLenderUser())
+                .borrowerUser(invoice.getBorrowerUser())
+                .selectedOffer(lead)
                 .status(DealStatus.KYC_PENDING)
                 .contactVisibility(ContactVisibility.MASKED)
+                .allocationStrategy(strategy)
                 .build();
+        for (SyndicationAllocator.Allocation allocation : allocations) {
+            FundingOffer offer = accepted.get(allocation.offer().getId());
+            deal.getParticipations().add(DealParticipation.builder()
+                    .deal(deal)
+                    .offer(offer)
+                    .lenderUser(offer.getLenderUser())
+                    .amount(allocation.amount())
+                    .interestRatePa(offer.getInterestRatePa())
+                    .processingFee(offer.getProcessingFee())
+                    .build());
+        }
         
         deal = dealRepository.save(deal);
         
-        // Mark other offers for this invoice as rejected
-        List<FundingOffer> otherOffers = offerRepository.findByInvoiceAndStatusOrderByCreatedAtDesc(
-                invoice, FundingOfferStatus.ACTIVE);
+        log.info("Created deal with ID: {} for invoice: {} between borrower: {} and {} lender(s) led by {} ({} other offers rejected)", 
+                deal.getId(), invoiceId, invoice.getBorrowerUser().getId(), allocations.size(),
+                lead.getLenderUser().getId(), rejected);
         
-        for (FundingOffer otherOffer : otherOffers) {
-            if (!otherOffer.getId().equals(offerId)) {
-                otherOffer.setStatus(FundingOfferStatus.REJECTED);
-                offerRepository.save(otherOffer);
-            }
-        }
-        
-        log.info("Created deal with ID: {} for offer: {} between borrower: {} and lender: {}", 
-                deal.getId(), offerId, currentUser.getId(), offer.getLenderUser().getId());
-        
-        return mapToDealResponse(deal);
+        return deal;
     }
     
     public List<DealResponse> getMyDeals() {
@@ -90,8 +269,16 @@ public class DealService {
         
         List<Deal> deals = dealRepository.findByUser(currentUser);
         
+        // KYC status for every party on the list is resolved in one query
+        Set<Long> partyIds = new HashSet<>();
+        for (Deal deal : deals) {
+            partyIds.add(deal.getBorrowerUser().getId());
+            partyIds.add(deal.getLenderUser().getId());
+        }
+        Set<Long> verifiedUserIds = kycService.findVerifiedUserIds(partyIds);
+        
         return deals.stream()
-                .map(this::mapToDealResponse)
+                .map(deal -> mapToDealResponse(deal, verifiedUserIds))
                 .collect(Collectors.toList());
     }
     
@@ -102,9 +289,7 @@ public class DealService {
         User currentUser = userService.getCurrentUser();
         
         // Only parties involved in the deal can view it
-        if (!deal.getBorrowerUser().getId().equals(currentUser.getId()) && 
-            !deal.getLenderUser().getId().equals(currentUser.getId()) && 
-            !currentUser.isAdmin()) {
+        if (!isParty(deal, currentUser) && !currentUser.isAdmin()) {
             throw new BadRequestException("Access denied to view this deal");
         }
         
@@ -118,8 +303,7 @@ public class DealService {
         User currentUser = userService.getCurrentUser();
         
         // Only parties involved in the deal can view contacts
-        if (!deal.getBorrowerUser().getId().equals(currentUser.getId()) && 
-            !deal.getLenderUser().getId().equals(currentUser.getId())) {
+        if (!isParty(deal, currentUser)) {
             throw new BadRequestException("Access denied to view contacts for this deal");
         }
         
@@ -140,35 +324,106 @@ public class DealService {
     
     @Transactional
     public DealResponse updateDealStatus(Long dealId, DealStatus newStatus) {
+        User currentUser = userService.getCurrentUser();
+        
+        if (!currentUser.isAdmin()) {
+            throw new BadRequestException("Only admins can update deal status");
+        }
+        
+        DealTransitionService.Outcome outcome = dealTransitionService
+                .transition(Map.of(dealId, newStatus), currentUser).get(0);
+        if (DealTransitionService.DEAL_NOT_FOUND.equals(outcome.error())) {
+            throw new ResourceNotFoundException(outcome.error());
+        }
+        if (!outcome.isApplied()) {
+            throw new BadRequestException(outcome.error());
+        }
+        
+        // The transition's bulk updates cleared the persistence context
         Deal deal = dealRepository.findById(dealId)
                 .orElseThrow(() -> new ResourceNotFoundException("Deal not found"));
         
+        log.info("Updated deal {} status from {} to {} by admin: {}", 
+                dealId, outcome.fromStatus(), newStatus, currentUser.getId());
+        
+        return mapToDealResponse(deal);
+    }
+    
+    // Applies a batch of admin status changes in one transaction. Each item gets its own outcome; items
+    // that fail validation leave their deal untouched without affecting the rest of the batch.
+    @Transactional
+    public BulkDealTransitionResponse transitionDealsBulk(List<DealTransitionItem> items) {
         User currentUser = userService.getCurrentUser();
         
         if (!currentUser.isAdmin()) {
             throw new BadRequestException("Only admins can update deal status");
         }
         
-        DealStatus oldStatus = deal.getStatus();
-        deal.setStatus(newStatus);
+        DealTransitionResult[] results = new DealTransitionResult[items.size()];
+        Map<Long, DealStatus> targets = new LinkedHashMap<>();
+        Map<Long, Integer> indexes = new HashMap<>();
+        for (int i = 0; i < items.size(); i++) {
+            DealTransitionItem item = items.get(i);
+            if (item == null || item.getDealId() == null) {
+                results[i] = transitionFailure(i, null, "Deal ID is required");
+            } else if (item.getTargetStatus() == null) {
+                results[i] = transitionFailure(i, item.getDealId(), "Target status is required");
+            } else if (indexes.putIfAbsent(item.getDealId(), i) != null) {
+                results[i] = transitionFailure(i, item.getDealId(), "Deal appears more than once in the batch");
+            } else {
+                targets.put(item.getDealId(), item.getTargetStatus());
+            }
+        }
         
-        // If moving to KYC_VERIFIED, make contacts visible
-        if (DealStatus.KYC_VERIFIED.equals(newStatus)) {
-            deal.setContactVisibility(ContactVisibility.VISIBLE);
+        for (DealTransitionService.Outcome outcome : dealTransitionService.transition(targets, currentUser)) {
+            int index = indexes.get(outcome.dealId());
+            results[index] = DealTransitionResult.builder()
+                    .index(index)
+                    .dealId(outcome.dealId().toString())
+                    .success(outcome.isApplied())
+                    .error(outcome.error())
+                    .fromStatus(outcome.fromStatus())
+                    .toStatus(outcome.toStatus())
+                    .build();
         }
         
-        deal = dealRepository.save(deal);
+        int succeeded = (int) Arrays.stream(results).filter(DealTransitionResult::isSuccess).count();
+        log.info("Bulk deal transition by admin {}: {} of {} applied", currentUser.getId(), succeeded, results.length);
         
-        log.info("Updated deal {} status from {} to {} by admin: {}", 
-                dealId, oldStatus, newStatus, currentUser.getId());
-        
-        return mapToDealResponse(deal);
+        return BulkDealTransitionResponse.builder()
+                .requested(results.length)
+                .succeeded(succeeded)
+                .failed(results.length - succeeded)
+                .results(Arrays.asList(results))
+                .build();
+    }
+    
+    private DealTransitionResult transitionFailure(int index, Long dealId, String error) {
+        return DealTransitionResult.builder()
+                .index(index)
+                .dealId(dealId != null ? dealId.toString() : null)
+                .success(false)
+                .error(error)
+                .build();
+    }
+    
+    // The borrower, the lead lender or any lender holding a participation
+    private boolean isParty(Deal deal, User user) {
+        return deal.getBorrowerUser().getId().equals(user.getId())
+                || deal.getLenderUser().getId().equals(user.getId())
+                || deal.getParticipations().stream()
+                        .anyMatch(participation -> participation.getLenderUser().getId().equals(user.getId()));
     }
     
     private DealResponse mapToDealResponse(Deal deal) {
+        return mapToDealResponse(deal, kycService.findVerifiedUserIds(
+                Set.of(deal.getBorrowerUser().getId(), deal.getLenderUser().getId())));
+    }
+    
+    private DealResponse mapToDealResponse(Deal deal, Set<Long> verifiedUserIds) {
         // Check if both parties have completed KYC
-        boolean borrowerKycVerified = kycService.isUserKycVerified(deal.getBorrowerUser().getId());
-        boolean lenderKycVerified = kycService.isUserKycVerified(deal.getLenderUser().getId());
+        boolean borrowerKycVerified = verifiedUserIds.contains(deal.getBorrowerUser().getId());
+        boolean lenderKycVerified = verifiedUserIds.contains(deal.getLenderUser().getId());
         boolean contactsUnlocked = borrowerKycVerified && lenderKycVerified;
         
         // Create contact info if contacts are unlocked
@@ -188,6 +443,16 @@ public class DealService {
                 .selectedOfferId(deal.getSelectedOffer().getId().toString())
                 .status(deal.getStatus())
                 .contactVisibility(deal.getContactVisibility())
+                .allocationStrategy(deal.getAllocationStrategy())
+                .participations(deal.getParticipations().stream()
+                        .map(participation -> DealParticipationResponse.builder()
+                                .offerId(participation.getOffer().getId().toString())
+                                .lenderUserId(participation.getLenderUser().getId().toString())
+                                .amount(participation.getAmount())
+                                .interestRatePa(participation.getInterestRatePa())
+                                .processingFee(participation.getProcessingFee())
+                                .build())
+                        .collect(Collectors.toList()))
                 .contactsUnlocked(contactsUnlocked)
                 .borrowerContact(borrowerContact)
                 .lenderContact(lenderContact)
@@ -0,0 +1,69 @@
+package com.invoicefinance.service;
+
+import com.invoicefinance.entity.DealStatus;
+import com.invoicefinance.entity.FinancingRequestStatus;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
+// The deal lifecycle as data: which statuses a deal may move to from each status, which moves are
+// guarded, and the invoice status each deal status implies. SETTLED and CANCELLED are terminal.
+@Component
+public class DealStateMachine {
+    
+    private static final Map<DealStatus, Set<DealStatus>> TRANSITIONS = new EnumMap<>(DealStatus.class);
+    private static final Map<DealStatus, FinancingRequestStatus> INVOICE_STATUSES = new EnumMap<>(DealStatus.class);
+    
+    static {
+        allow(DealStatus.KYC_PENDING, DealStatus.KYC_VERIFIED, DealStatus.CANCELLED);
+        allow(DealStatus.KYC_VERIFIED, DealStatus.AGREEMENT_SIGNED, DealStatus.CANCELLED);
+        allow(DealStatus.AGREEMENT_SIGNED, DealStatus.DISBURSEMENT, DealStatus.CANCELLED);
+        allow(DealStatus.DISBURSEMENT, DealStatus.ACTIVE, DealStatus.CANCELLED);
+        allow(DealStatus.ACTIVE, DealStatus.SETTLED, DealStatus.OVERDUE);
+        allow(DealStatus.OVERDUE, DealStatus.SETTLED);
+        
+        INVOICE_STATUSES.put(DealStatus.KYC_PENDING, FinancingRequestStatus.KYC_PENDING);
+        INVOICE_STATUSES.put(DealStatus.KYC_VERIFIED, FinancingRequestStatus.KYC_VERIFIED);
+        INVOICE_STATUSES.put(DealStatus.AGREEMENT_SIGNED, FinancingRequestStatus.AGREEMENT_SIGNED);
+        INVOICE_STATUSES.put(DealStatus.DISBURSEMENT, FinancingRequestStatus.DISBURSEMENT);
+        INVOICE_STATUSES.put(DealStatus.ACTIVE, FinancingRequestStatus.ACTIVE);
+        // Invoices have no overdue status; the financing is still running
+        INVOICE_STATUSES.put(DealStatus.OVERDUE, FinancingRequestStatus.ACTIVE);
+        INVOICE_STATUSES.put(DealStatus.SETTLED, FinancingRequestStatus.SETTLED);
+        INVOICE_STATUSES.put(DealStatus.CANCELLED, FinancingRequestStatus.CANCELLED);
+    }
+    
+    private static void allow(DealStatus from, DealStatus... targets) {
+        Set<DealStatus> allowed = EnumSet.noneOf(DealStatus.class);
+        Collections.addAll(allowed, targets);
+        TRANSITIONS.put(from, allowed);
+    }
+    
+    // Why the move is not allowed by the table, or null if it is; guards are checked separately
+    public String rejectionReason(DealStatus from, DealStatus to) {
+        if (from.equals(to)) {
+            return "Deal is already " + to;
+        }
+        if (!TRANSITIONS.getOrDefault(from, Set.of()).contains(to)) {
+            return "Cannot move a deal from " + from + " to " + to;
+        }
+        return null;
+    }
+    
+    // Contacts are unlocked and the deal proceeds only once every party has passed KYC
+    public boolean requiresVerifiedParties(DealStatus to) {
+        return DealStatus.KYC_VERIFIED.equals(to);
+    }
+    
+    public boolean revealsContacts(DealStatus to) {
+        return DealStatus.KYC_VERIFIED.equals(to);
+    }
+    
+    public FinancingRequestStatus invoiceStatusFor(DealStatus status) {
+        return INVOICE_STATUSES.get(status);
+    }
+}
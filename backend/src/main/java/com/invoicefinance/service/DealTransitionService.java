@@ -0,0 +1,155 @@
+package com.invoicefinance.service;
+
+import com.invoicefinance.entity.DealStatus;
+import com.invoicefinance.entity.FinancingRequestStatus;
+import com.invoicefinance.entity.User;
+import com.invoicefinance.repository.DealRepository;
+import com.invoicefinance.repository.DealTransitionRepository;
+import com.invoicefinance.repository.InvoiceRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Applies deal status transitions through DealStateMachine. The deals are locked and read in one
+// query, every requested move is checked against the table and its guards, and the accepted ones are
+// applied with one conditional UPDATE per (from, to) pair, one invoice UPDATE per implied invoice
+// status and one batched insert into the transition log, all in the caller's transaction. Rejected
+// moves leave their deal untouched and do not affect the rest of the batch.
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DealTransitionService {
+    
+    public static final String DEAL_NOT_FOUND = "Deal not found";
+    
+    private final DealRepository dealRepository;
+    private final InvoiceRepository invoiceRepository;
+    private final DealTransitionRepository transitionRepository;
+    private final DealStateMachine stateMachine;
+    private final KycStatusService kycStatusService;
+    
+    // error is null when the transition was applied
+    public record Outcome(Long dealId, DealStatus fromStatus, DealStatus toStatus, String error) {
+        
+        public boolean isApplied() {
+            return error == null;
+        }
+    }
+    
+    private record StatusChange(DealStatus from, DealStatus to) {
+    }
+    
+    private record DealRow(Long id, DealStatus status, Long invoiceId, Long borrowerUserId, Long lenderUserId) {
+    }
+    
+    // Outcomes are returned in the iteration order of targets
+    @Transactional
+    public List<Outcome> transition(Map<Long, DealStatus> targets, User actor) {
+        if (targets.isEmpty()) {
+            return List.of();
+        }
+        LocalDateTime now = LocalDateTime.now();
+        
+        Map<Long, DealRow> rows = new HashMap<>();
+        for (Object[] row : dealRepository.lockForTransition(targets.keySet())) {
+            DealRow deal = new DealRow(((Number) row[0]).longValue(), DealStatus.valueOf((String) row[1]),
+                    ((Number) row[2]).longValue(), ((Number) row[3]).longValue(), ((Number) row[4]).longValue());
+            rows.put(deal.id(), deal);
+        }
+        
+        Map<Long, Set<Long>> unverifiedParties = findUnverifiedParties(targets, rows);
+        
+        List<Outcome> outcomes = new ArrayList<>(targets.size());
+        Map<StatusChange, List<Long>> accepted = new LinkedHashMap<>();
+        Map<FinancingRequestStatus, List<Long>> invoiceUpdates = new EnumMap<>(FinancingRequestStatus.class);
+        List<DealTransitionRepository.Transition> transitions = new ArrayList<>();
+        Long actorUserId = actor != null ? actor.getId() : null;
+        
+        for (Map.Entry<Long, DealStatus> target : targets.entrySet()) {
+            Long dealId = target.getKey();
+            DealStatus to = target.getValue();
+            DealRow deal = rows.get(dealId);
+            if (deal == null) {
+                outcomes.add(new Outcome(dealId, null, to, DEAL_NOT_FOUND));
+                continue;
+            }
+            
+            String error = stateMachine.rejectionReason(deal.status(), to);
+            if (error == null && unverifiedParties.containsKey(dealId)) {
+                error = "KYC is not verified for users " + unverifiedParties.get(dealId);
+            }
+            outcomes.add(new Outcome(dealId, deal.status(), to, error));
+            if (error != null) {
+                continue;
+            }
+            
+            accepted.computeIfAbsent(new StatusChange(deal.status(), to), key -> new ArrayList<>()).add(dealId);
+            invoiceUpdates.computeIfAbsent(stateMachine.invoiceStatusFor(to), key -> new ArrayList<>())
+                    .add(deal.invoiceId());
+            transitions.add(new DealTransitionRepository.Transition(dealId, deal.status(), to, actorUserId));
+        }
+        
+        if (transitions.isEmpty()) {
+            return outcomes;
+        }
+        
+        // The rows are locked, so every conditional update matches exactly the deals validated above
+        for (Map.Entry<StatusChange, List<Long>> group : accepted.entrySet()) {
+            StatusChange change = group.getKey();
+            dealRepository.transitionStatuses(group.getValue(), change.from(), change.to(), now);
+            if (stateMachine.revealsContacts(change.to())) {
+                dealRepository.revealContacts(group.getValue());
+            }
+        }
+        for (Map.Entry<FinancingRequestStatus, List<Long>> group : invoiceUpdates.entrySet()) {
+            invoiceRepository.updateStatuses(group.getValue(), group.getKey(), now);
+        }
+        transitionRepository.insertAll(transitions, now);
+        
+        log.info("Applied {} of {} deal transitions by user: {}", transitions.size(), targets.size(), actorUserId);
+        return outcomes;
+    }
+    
+    // For deals moving into a guarded status: the parties (borrower, lead lender and every
+    // participating lender) that have not passed KYC, keyed by deal; deals with none are left out
+    private Map<Long, Set<Long>> findUnverifiedParties(Map<Long, DealStatus> targets, Map<Long, DealRow> rows) {
+        Map<Long, Set<Long>> parties = new HashMap<>();
+        for (Map.Entry<Long, DealStatus> target : targets.entrySet()) {
+            DealRow deal = rows.get(target.getKey());
+            if (deal != null && stateMachine.requiresVerifiedParties(target.getValue())) {
+                parties.put(deal.id(), new HashSet<>(List.of(deal.borrowerUserId(), deal.lenderUserId())));
+            }
+        }
+        if (parties.isEmpty()) {
+            return Map.of();
+        }
+        
+        for (Object[] row : dealRepository.findParticipantLenderIds(parties.keySet())) {
+            parties.get((Long) row[0]).add((Long) row[1]);
+        }
+        
+        Set<Long> allParties = new HashSet<>();
+        parties.values().forEach(allParties::addAll);
+        Set<Long> verified = kycStatusService.findVerifiedUserIds(allParties);
+        
+        Map<Long, Set<Long>> unverified = new HashMap<>();
+        parties.forEach((dealId, userIds) -> {
+            userIds.removeAll(verified);
+            if (!userIds.isEmpty()) {
+                unverified.put(dealId, userIds);
+            }
+        });
+        return unverified;
+    }
+}
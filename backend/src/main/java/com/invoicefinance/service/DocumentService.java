@@ -19,8 +19,12 @@ import org.springframework.transaction.annotation.Transactional;
 import java.net.URL;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -29,9 +33,13 @@ import java.util.stream.Collectors;
 @Slf4j
 public class DocumentService {
     
+    // Download URLs are valid for 1 hour
+    private static final long DOWNLOAD_URL_TTL_MILLIS = 60 * 60 * 1000;
+    
     private final DocumentRepository documentRepository;
     private final UserService userService;
     private final AmazonS3 amazonS3;
+    private final PresignedUrlCache presignedUrlCache;
     
     @Value("${cloud.aws.s3.bucket}")
     private String bucketName;
@@ -89,6 +97,9 @@ public class DocumentService {
         
         document = documentRepository.save(document);
         
+        // A re-upload to an existing key must not be served from a URL signed for the old object
+        presignedUrlCache.invalidate(document.getS3Key());
+        
         log.info("Document upload completed for user {} with ID {}", currentUser.getId(), document.getId());
         
         return mapToDocumentResponse(document);
@@ -115,24 +126,35 @@ public class DocumentService {
         User currentUser = userService.getCurrentUser();
         
         // Check if user has access to this document
-        if (!document.getOwnerUser().getId().equals(currentUser.getId()) && !currentUser.isAdmin()) {
+        if (!canDownload(document.getOwnerUser().getId(), currentUser)) {
             throw new BadRequestException("Access denied to this document");
         }
         
-        // Generate presigned URL for download (valid for 1 hour)
-        Date expiration = new Date(System.currentTimeMillis() + (60 * 60 * 1000));
-        GeneratePresignedUrlRequest presignedUrlRequest = new GeneratePresignedUrlRequest(bucketName, document.getS3Key())
-                .withMethod(HttpMethod.GET)
-                .withExpiration(expiration);
-        
-        URL url = amazonS3.generatePresignedUrl(presignedUrlRequest);
-        
         return PresignedUrlResponse.builder()
-                .url(url.toString())
+                .url(cachedDownloadUrl(document.getS3Key()))
                 .key(document.getS3Key())
                 .build();
     }
     
+    // Resolves download URLs for a whole page of documents: one IN query and one caller lookup.
+    // Documents the caller may not download are left out of the map.
+    public Map<Long, String> getDownloadUrls(Collection<Long> documentIds) {
+        if (documentIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        
+        User currentUser = userService.getCurrentUser();
+        List<Document> documents = documentRepository.findAllById(documentIds);
+        
+        Map<Long, String> urls = new HashMap<>();
+        for (Document document : documents) {
+            if (canDownload(document.getOwnerUser().getId(), currentUser)) {
+                urls.put(document.getId(), cachedDownloadUrl(document.getS3Key()));
+            }
+        }
+        return urls;
+    }
+    
     public List<DocumentResponse> getUserDocuments(DocumentType type) {
         User currentUser = userService.getCurrentUser();
         
@@ -148,6 +170,29 @@ public class DocumentService {
                 .collect(Collectors.toList());
     }
     
+    // For callers that already hold the document's key and owner (listing projections): no lookups.
+    // Returns null when the caller may not download the document.
+    public String getDownloadUrl(String s3Key, Long ownerUserId, User caller) {
+        return canDownload(ownerUserId, caller) ? cachedDownloadUrl(s3Key) : null;
+    }
+    
+    private boolean canDownload(Long ownerUserId, User user) {
+        return ownerUserId.equals(user.getId()) || user.isAdmin();
+    }
+    
+    private String cachedDownloadUrl(String s3Key) {
+        return presignedUrlCache.get(s3Key, HttpMethod.GET, DOWNLOAD_URL_TTL_MILLIS,
+                expiration -> signDownloadUrl(s3Key, expiration));
+    }
+    
+    private URL signDownloadUrl(String s3Key, Date expiration) {
+        GeneratePresignedUrlRequest presignedUrlRequest = new GeneratePresignedUrlRequest(bucketName, s3Key)
+                .withMethod(HttpMethod.GET)
+                .withExpiration(expiration);
+        
+        return amazonS3.generatePresignedUrl(presignedUrlRequest);
+    }
+    
     private String generateS3Key(Long userId, DocumentType type) {
         String timestamp = String.valueOf(System.currentTimeMillis());
         String uuid = UUID.randomUUID().toString().substring(0, 8);
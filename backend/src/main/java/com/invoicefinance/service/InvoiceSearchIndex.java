@@ -0,0 +1,373 @@
+package com.invoicefinance.service;
+
+import com.invoicefinance.entity.FinancingRequestStatus;
+import com.invoicefinance.entity.Invoice;
+import com.invoicefinance.event.InvoiceStatusChangedEvent;
+import com.invoicefinance.repository.InvoiceRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Embedded inverted index over OPEN invoices (buyer name, invoice number, borrower company, location).
+// Query terms match exactly, by prefix, or within a small edit distance; hits are ranked with BM25-style
+// idf weighting and field boosts. Kept in sync from committed InvoiceStatusChangedEvents, and rebuilt
+// periodically like OpenInvoiceIndex, which it is intersected with, to pick up listings and delistings
+// committed on other nodes.
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class InvoiceSearchIndex {
+    
+    private static final float INVOICE_NUMBER_BOOST = 3.0f;
+    private static final float BUYER_NAME_BOOST = 2.0f;
+    private static final float COMPANY_NAME_BOOST = 1.5f;
+    private static final float LOCATION_BOOST = 1.0f;
+    
+    private static final float PREFIX_MATCH_WEIGHT = 0.8f;
+    private static final float FUZZY_MATCH_WEIGHT = 0.5f;
+    private static final int MAX_EXPANSIONS_PER_TERM = 50;
+    
+    private final InvoiceRepository invoiceRepository;
+    
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    
+    // term -> (invoiceId -> boosted term frequency); sorted so prefix expansion is a range scan
+    private final TreeMap<String, Map<Long, Float>> postings = new TreeMap<>();
+    private final Map<String, Set<String>> termsByTrigram = new HashMap<>();
+    private final Map<Long, IndexedInvoice> documents = new HashMap<>();
+    
+    private Map<Long, Invoice> pendingChanges;
+    private volatile boolean ready;
+    
+    public record Hit(Long invoiceId, float score) {
+    }
+    
+    public record SearchResult(List<Hit> hits, int totalHits, Map<String, Map<String, Long>> facets) {
+    }
+    
+    private record IndexedInvoice(Set<String> terms, String type, String currency, String location) {
+    }
+    
+    public boolean isReady() {
+        return ready;
+    }
+    
+    // Builds the index on the caller's thread if the startup build has not finished yet
+    public void ensureReady() {
+        if (!ready) {
+            synchronized (this) {
+                if (!ready) {
+                    rebuild();
+                }
+            }
+        }
+    }
+    
+    // Ids of every invoice matching all query terms, for combining with structured filters
+    public Set<Long> matchingIds(String query) {
+        lock.readLock().lock();
+        try {
+            return score(tokenize(query)).keySet();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    public SearchResult search(String query, int limit) {
+        lock.readLock().lock();
+        try {
+            Map<Long, Float> scores = score(tokenize(query));
+            
+            List<Hit> hits = new ArrayList<>(scores.size());
+            scores.forEach((invoiceId, score) -> hits.add(new Hit(invoiceId, score)));
+            hits.sort(Comparator.comparingDouble(Hit::score).reversed()
+                    .thenComparing(Hit::invoiceId, Comparator.reverseOrder()));
+            
+            Map<String, Map<String, Long>> facets = new LinkedHashMap<>();
+            facets.put("type", new TreeMap<>());
+            facets.put("currency", new TreeMap<>());
+            facets.put("location", new TreeMap<>());
+            for (Long invoiceId : scores.keySet()) {
+                IndexedInvoice document = documents.get(invoiceId);
+                facets.get("type").merge(document.type(), 1L, Long::sum);
+                facets.get("currency").merge(document.currency(), 1L, Long::sum);
+                if (document.location() != null) {
+                    facets.get("location").merge(document.location(), 1L, Long::sum);
+                }
+            }
+            
+            return new SearchResult(hits.subList(0, Math.min(limit, hits.size())), hits.size(), facets);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onInvoiceStatusChanged(InvoiceStatusChangedEvent event) {
+        if (event.isListed()) {
+            apply(event.getInvoice().getId(), event.getInvoice());
+        } else if (event.isDelisted()) {
+            apply(event.getInvoice().getId(), null);
+        }
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        rebuild();
+    }
+    
+    @Scheduled(fixedDelayString = "${app.marketplace.search-index.rebuild-interval-ms:60000}",
+               initialDelayString = "${app.marketplace.search-index.rebuild-interval-ms:60000}")
+    public void reconcile() {
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            log.warn("Invoice search index rebuild failed: {}", e.getMessage());
+        }
+    }
+    
+    public synchronized void rebuild() {
+        lock.writeLock().lock();
+        try {
+            pendingChanges = new LinkedHashMap<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        
+        List<Invoice> openInvoices;
+        try {
+            openInvoices = invoiceRepository.findByStatusWithBorrower(FinancingRequestStatus.OPEN);
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                pendingChanges = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+        
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            termsByTrigram.clear();
+            documents.clear();
+            for (Invoice invoice : openInvoices) {
+                add(invoice);
+            }
+            for (Map.Entry<Long, Invoice> change : pendingChanges.entrySet()) {
+                remove(change.getKey());
+                if (change.getValue() != null) {
+                    add(change.getValue());
+                }
+            }
+            pendingChanges = null;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        
+        log.info("Invoice search index rebuilt with {} invoices and {} terms", openInvoices.size(), postings.size());
+    }
+    
+    private void apply(Long invoiceId, Invoice invoice) {
+        lock.writeLock().lock();
+        try {
+            if (pendingChanges != null) {
+                pendingChanges.put(invoiceId, invoice);
+            }
+            remove(invoiceId);
+            if (invoice != null) {
+                add(invoice);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    private void add(Invoice invoice) {
+        Map<String, Float> termWeights = new HashMap<>();
+        addField(termWeights, invoice.getInvoiceNumber(), INVOICE_NUMBER_BOOST);
+        addField(termWeights, invoice.getBuyerName(), BUYER_NAME_BOOST);
+        addField(termWeights, invoice.getBorrowerUser().getCompanyName(), COMPANY_NAME_BOOST);
+        addField(termWeights, invoice.getLocation(), LOCATION_BOOST);
+        
+        termWeights.forEach((term, weight) -> {
+            Map<Long, Float> postingList = postings.get(term);
+            if (postingList == null) {
+                postingList = new HashMap<>();
+                postings.put(term, postingList);
+                for (String trigram : trigrams(term)) {
+                    termsByTrigram.computeIfAbsent(trigram, key -> new HashSet<>()).add(term);
+                }
+            }
+            postingList.put(invoice.getId(), weight);
+        });
+        
+        documents.put(invoice.getId(), new IndexedInvoice(
+                termWeights.keySet(), invoice.getType().name(), invoice.getCurrency(), invoice.getLocation()));
+    }
+    
+    private void remove(Long invoiceId) {
+        IndexedInvoice document = documents.remove(invoiceId);
+        if (document == null) {
+            return;
+        }
+        
+        for (String term : document.terms()) {
+            Map<Long, Float> postingList = postings.get(term);
+            postingList.remove(invoiceId);
+            if (postingList.isEmpty()) {
+                postings.remove(term);
+                for (String trigram : trigrams(term)) {
+                    Set<String> terms = termsByTrigram.get(trigram);
+                    terms.remove(term);
+                    if (terms.isEmpty()) {
+                        termsByTrigram.remove(trigram);
+                    }
+                }
+            }
+        }
+    }
+    
+    private void addField(Map<String, Float> termWeights, String value, float boost) {
+        for (String term : tokenize(value)) {
+            termWeights.merge(term, boost, Float::sum);
+        }
+    }
+    
+    // Every query term has to match (exactly, by prefix or fuzzily); scores add up across terms
+    private Map<Long, Float> score(List<String> queryTerms) {
+        if (queryTerms.isEmpty()) {
+            return Map.of();
+        }
+        
+        int documentCount = documents.size();
+        Map<Long, Float> scores = null;
+        
+        for (String queryTerm : queryTerms) {
+            Map<Long, Float> termScores = new HashMap<>();
+            expand(queryTerm).forEach((term, matchWeight) -> {
+                Map<Long, Float> postingList = postings.get(term);
+                double idf = Math.log(1 + (documentCount - postingList.size() + 0.5) / (postingList.size() + 0.5));
+                postingList.forEach((invoiceId, frequency) -> {
+                    float score = (float) (idf * matchWeight * frequency * 2.2 / (frequency + 1.2));
+                    termScores.merge(invoiceId, score, Math::max);
+                });
+            });
+            
+            if (scores == null) {
+                scores = termScores;
+            } else {
+                Map<Long, Float> combined = new HashMap<>();
+                for (Map.Entry<Long, Float> entry : scores.entrySet()) {
+                    Float termScore = termScores.get(entry.getKey());
+                    if (termScore != null) {
+                        combined.put(entry.getKey(), entry.getValue() + termScore);
+                    }
+                }
+                scores = combined;
+            }
+            
+            if (scores.isEmpty()) {
+                break;
+            }
+        }
+        return scores;
+    }
+    
+    // Dictionary terms the query term may stand for, with how strongly each counts
+    private Map<String, Float> expand(String queryTerm) {
+        Map<String, Float> expansions = new HashMap<>();
+        if (postings.containsKey(queryTerm)) {
+            expansions.put(queryTerm, 1.0f);
+        }
+        
+        for (String term : postings.subMap(queryTerm, false, queryTerm + Character.MAX_VALUE, false).keySet()) {
+            if (expansions.size() >= MAX_EXPANSIONS_PER_TERM) {
+                break;
+            }
+            expansions.putIfAbsent(term, PREFIX_MATCH_WEIGHT);
+        }
+        
+        int maxEdits = queryTerm.length() >= 8 ? 2 : queryTerm.length() >= 4 ? 1 : 0;
+        if (maxEdits > 0) {
+            Set<String> candidates = new HashSet<>();
+            for (String trigram : trigrams(queryTerm)) {
+                candidates.addAll(termsByTrigram.getOrDefault(trigram, Set.of()));
+            }
+            for (String candidate : candidates) {
+                if (!expansions.containsKey(candidate) && withinEditDistance(queryTerm, candidate, maxEdits)) {
+                    expansions.put(candidate, FUZZY_MATCH_WEIGHT);
+                }
+            }
+        }
+        return expansions;
+    }
+    
+    private static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        for (String token : text.toLowerCase().split("[^\\p{L}\\p{N}]+")) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+    
+    private static Set<String> trigrams(String term) {
+        String padded = "$" + term + "$";
+        Set<String> trigrams = new HashSet<>();
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            trigrams.add(padded.substring(i, i + 3));
+        }
+        return trigrams;
+    }
+    
+    // Levenshtein distance with an early exit once every cell in a row exceeds the bound
+    private static boolean withinEditDistance(String a, String b, int maxEdits) {
+        if (Math.abs(a.length() - b.length()) > maxEdits) {
+            return false;
+        }
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int substitution = previous[j - 1] + (a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1);
+                current[j] = Math.min(substitution, Math.min(previous[j], current[j - 1]) + 1);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > maxEdits) {
+                return false;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()] <= maxEdits;
+    }
+}
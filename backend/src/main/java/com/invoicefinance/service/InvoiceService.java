@@ -1,19 +1,42 @@
 package com.invoicefinance.service;
 
+import com.invoicefinance.dto.CoalescingStatsResponse;
 import com.invoicefinance.dto.CreateFinancingRequestForm;
+import com.invoicefinance.dto.CursorPage;
+import com.invoicefinance.dto.InvoiceListingRow;
 import com.invoicefinance.dto.InvoiceResponse;
+import com.invoicefinance.dto.InvoiceSearchResponse;
+import com.invoicefinance.dto.ListInvoiceRequest;
+import com.invoicefinance.dto.MarketplaceFilter;
+import com.invoicefinance.dto.MarketplaceSort;
 import com.invoicefinance.entity.*;
+import com.invoicefinance.event.InvoiceStatusChangedEvent;
 import com.invoicefinance.exception.BadRequestException;
 import com.invoicefinance.exception.ResourceNotFoundException;
 import com.invoicefinance.repository.DocumentRepository;
 import com.invoicefinance.repository.InvoiceRepository;
+import com.invoicefinance.security.UserPrincipal;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -21,10 +44,29 @@ import java.util.stream.Collectors;
 @Slf4j
 public class InvoiceService {
     
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final Duration MIN_AUCTION_DURATION = Duration.ofMinutes(5);
+    private static final Duration MAX_AUCTION_DURATION = Duration.ofDays(30);
+    // Above any DECIMAL(5,2) rate and before any offer, for ordering listings without offers last
+    private static final BigDecimal NO_BEST_RATE = new BigDecimal("1000.00");
+    private static final LocalDateTime NO_OFFER_YET = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final List<Long> NO_SEARCH_IDS = List.of(0L);
+    
     private final InvoiceRepository invoiceRepository;
     private final DocumentRepository documentRepository;
     private final UserService userService;
     private final DocumentService documentService;
+    private final OpenInvoiceIndex openInvoiceIndex;
+    private final InvoiceSearchIndex invoiceSearchIndex;
+    private final ApplicationEventPublisher eventPublisher;
+    
+    private final SingleFlight<MarketplaceQueryKey, CursorPage<InvoiceResponse>> marketplaceFlights =
+            new SingleFlight<>("marketplace-invoices");
+    
+    private record MarketplaceQueryKey(MarketplaceFilter criteria, MarketplaceCursor after, int pageSize,
+                                       boolean includeCount, String callerScope) {
+    }
     
     @Transactional
     public InvoiceResponse createFinancingRequest(CreateFinancingRequestForm request) {
@@ -72,20 +114,19 @@ public class InvoiceService {
         
         if (currentUser.isBorrower()) {
             // Borrowers see their own invoices
-            List<Invoice> invoices = invoiceRepository.findByBorrowerUserOrderByCreatedAtDesc(currentUser);
-            return invoices.stream()
-                    .map(this::mapToInvoiceResponse)
-                    .collect(Collectors.toList());
+            List<InvoiceListingRow> rows = invoiceRepository.findListingRowsByBorrowerId(currentUser.getId());
+            return mapToInvoiceResponses(rows, currentUser);
         } else if (currentUser.isLender()) {
-            // Lenders see the marketplace (all open invoices)
-            return getMarketplaceInvoices(null, null, null, null);
+            // Lenders see the marketplace (all open invoices); paginated browsing is /marketplace
+            List<InvoiceListingRow> rows = invoiceRepository.findListingRowsByStatus(FinancingRequestStatus.OPEN);
+            return mapToInvoiceResponses(rows, currentUser);
         } else {
             throw new BadRequestException("Access denied: User must be either a borrower or lender");
         }
     }
     
     public List<InvoiceResponse> getBorrowerInvoices(Long borrowerId) {
-        User borrower = userService.getUserById(borrowerId);
+        userService.getUserById(borrowerId);
         
         // Check if current user has permission to view this borrower's invoices
         User currentUser = userService.getCurrentUser();
@@ -94,11 +135,9 @@ public class InvoiceService {
             throw new BadRequestException("Access denied to view this borrower's invoices");
         }
         
-        List<Invoice> invoices = invoiceRepository.findByBorrowerUserOrderByCreatedAtDesc(borrower);
+        List<InvoiceListingRow> rows = invoiceRepository.findListingRowsByBorrowerId(borrowerId);
         
-        return invoices.stream()
-                .map(this::mapToInvoiceResponse)
-                .collect(Collectors.toList());
+        return mapToInvoiceResponses(rows, currentUser);
     }
     
     public InvoiceResponse getInvoice(Long id) {
@@ -148,7 +187,7 @@ public class InvoiceService {
     }
     
     @Transactional
-    public InvoiceResponse listInvoice(Long id) {
+    public InvoiceResponse listInvoice(Long id, ListInvoiceRequest request) {
         Invoice invoice = invoiceRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Invoice not found"));
         
@@ -162,39 +201,275 @@ public class InvoiceService {
             throw new BadRequestException("Invoice is already listed or processed");
         }
         
+        LocalDateTime auctionEndsAt = request.getAuctionEndsAt();
+        if (auctionEndsAt != null) {
+            LocalDateTime now = LocalDateTime.now();
+            if (auctionEndsAt.isBefore(now.plus(MIN_AUCTION_DURATION))) {
+                throw new BadRequestException("Auction must run for at least " + MIN_AUCTION_DURATION.toMinutes() + " minutes");
+            }
+            if (auctionEndsAt.isAfter(now.plus(MAX_AUCTION_DURATION))) {
+                throw new BadRequestException("Auction cannot run for more than " + MAX_AUCTION_DURATION.toDays() + " days");
+            }
+        }
+        
         invoice.setStatus(FinancingRequestStatus.OPEN);
+        invoice.setAuctionEndsAt(auctionEndsAt);
+        invoice.setSyndicated(request.isSyndicated());
         invoice = invoiceRepository.save(invoice);
+        eventPublisher.publishEvent(new InvoiceStatusChangedEvent(
+                invoice, FinancingRequestStatus.DRAFT, FinancingRequestStatus.OPEN));
         
-        log.info("Listed invoice with ID: {} in marketplace", invoice.getId());
+        log.info("Listed invoice with ID: {} in marketplace (syndicated: {}, auction ends: {})",
+                invoice.getId(), invoice.isSyndicated(), auctionEndsAt);
         return mapToInvoiceResponse(invoice);
     }
     
-    public List<InvoiceResponse> getMarketplaceInvoices(
-            BigDecimal minAmount, BigDecimal maxAmount, String buyerGstin, String search) {
+    public CursorPage<InvoiceResponse> getMarketplaceInvoices(
+            MarketplaceFilter filter, String cursor, Integer limit, boolean includeCount) {
         
         // Marketplace is now fully public - any authenticated user can browse
         // This allows full transparency for lenders to discover opportunities
         
-        List<Invoice> invoices = invoiceRepository.findOpenInvoicesWithFilters(
-                FinancingRequestStatus.OPEN, minAmount, maxAmount, buyerGstin, search);
+        int pageSize = resolvePageSize(limit);
+        MarketplaceCursor after = MarketplaceCursor.decode(cursor);
+        MarketplaceFilter criteria = filter.normalized();
         
-        return invoices.stream()
-                .map(this::mapToInvoiceResponse)
+        // Identical concurrent requests (e.g. default filters at market open) share one computation
+        MarketplaceQueryKey key = new MarketplaceQueryKey(criteria, after, pageSize, includeCount, callerScope());
+        return marketplaceFlights.execute(key, () -> loadMarketplacePage(criteria, after, pageSize, includeCount));
+    }
+    
+    public CoalescingStatsResponse getMarketplaceCoalescingStats() {
+        return marketplaceFlights.getStats();
+    }
+    
+    private CursorPage<InvoiceResponse> loadMarketplacePage(
+            MarketplaceFilter criteria, MarketplaceCursor after, int pageSize, boolean includeCount) {
+        
+        List<InvoiceListingRow> rows;
+        boolean hasMore;
+        Long totalCount = null;
+        
+        // Search terms are always matched by the search index, whichever path serves the page, so a
+        // query returns the same listings under every sort
+        Set<Long> searchHits = null;
+        if (criteria.getSearch() != null) {
+            invoiceSearchIndex.ensureReady();
+            searchHits = invoiceSearchIndex.matchingIds(criteria.getSearch());
+            if (searchHits.isEmpty()) {
+                return CursorPage.<InvoiceResponse>builder()
+                        .items(List.of())
+                        .hasMore(false)
+                        .limit(pageSize)
+                        .totalCount(includeCount ? 0L : null)
+                        .build();
+            }
+        }
+        
+        MarketplaceSort sort = criteria.getSort();
+        if (MarketplaceSort.NEWEST.equals(sort) && openInvoiceIndex.isReady()) {
+            // Filters are answered from the in-memory indexes; only the page itself is loaded
+            OpenInvoiceIndex.Page page = openInvoiceIndex.query(
+                    criteria.getMinAmount(), criteria.getMaxAmount(), criteria.getBuyerGstin(),
+                    criteria.getMinRate(), criteria.getMaxTenorDays(), searchHits, after, pageSize);
+            rows = loadOpenRowsInOrder(page.invoiceIds());
+            hasMore = page.hasMore();
+            if (includeCount) {
+                totalCount = (long) page.totalMatches();
+            }
+        } else {
+            // Fetch one extra row to know whether another page exists without counting
+            rows = findOpenRowsPage(criteria, searchHits, after, PageRequest.of(0, pageSize + 1));
+            
+            hasMore = rows.size() > pageSize;
+            if (hasMore) {
+                rows = rows.subList(0, pageSize);
+            }
+            if (includeCount) {
+                totalCount = invoiceRepository.countOpenInvoicesWithFilters(
+                        FinancingRequestStatus.OPEN, criteria.getMinAmount(), criteria.getMaxAmount(),
+                        criteria.getBuyerGstin(), criteria.getMinRate(), criteria.getMaxTenorDays(),
+                        searchHits == null, searchIdsParam(searchHits));
+            }
+        }
+        
+        String nextCursor = null;
+        if (hasMore && !rows.isEmpty()) {
+            nextCursor = cursorAfter(rows.get(rows.size() - 1), sort).encode();
+        }
+        
+        return CursorPage.<InvoiceResponse>builder()
+                .items(mapToInvoiceResponses(rows, resolveCaller()))
+                .nextCursor(nextCursor)
+                .hasMore(hasMore)
+                .limit(pageSize)
+                .totalCount(totalCount)
+                .build();
+    }
+    
+    public InvoiceSearchResponse searchMarketplace(String query, Integer limit) {
+        int pageSize = resolvePageSize(limit);
+        if (query == null || query.isBlank()) {
+            throw new BadRequestException("Search query is required");
+        }
+        
+        invoiceSearchIndex.ensureReady();
+        InvoiceSearchIndex.SearchResult result = invoiceSearchIndex.search(query, pageSize);
+        List<Long> rankedIds = result.hits().stream()
+                .map(InvoiceSearchIndex.Hit::invoiceId)
+                .collect(Collectors.toList());
+        
+        return InvoiceSearchResponse.builder()
+                .hits(mapToInvoiceResponses(loadOpenRowsInOrder(rankedIds), resolveCaller()))
+                .totalHits(result.totalHits())
+                .facets(result.facets())
+                .build();
+    }
+    
+    private List<InvoiceListingRow> loadOpenRowsInOrder(List<Long> invoiceIds) {
+        if (invoiceIds.isEmpty()) {
+            return List.of();
+        }
+        
+        Map<Long, InvoiceListingRow> byId = invoiceRepository.findListingRowsByIdIn(invoiceIds).stream()
+                .filter(row -> FinancingRequestStatus.OPEN.equals(row.getStatus()))
+                .collect(Collectors.toMap(InvoiceListingRow::getId, Function.identity()));
+        
+        // Keep the index order; anything that left the marketplace since the scan is skipped
+        return invoiceIds.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
                 .collect(Collectors.toList());
     }
     
+    private int resolvePageSize(Integer limit) {
+        if (limit == null) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        if (limit < 1) {
+            throw new BadRequestException("Limit must be positive");
+        }
+        return Math.min(limit, MAX_PAGE_SIZE);
+    }
+    
+    private List<InvoiceListingRow> findOpenRowsPage(MarketplaceFilter criteria, Set<Long> searchHits,
+                                                     MarketplaceCursor after, Pageable page) {
+        LocalDateTime cursorCreatedAt = after != null ? after.getCreatedAt() : null;
+        Long cursorId = after != null ? after.getId() : null;
+        String sortValue = after != null ? after.getSortValue() : null;
+        if (after != null && !MarketplaceSort.NEWEST.equals(criteria.getSort()) && sortValue == null) {
+            throw new BadRequestException("Cursor does not match the requested sort");
+        }
+        
+        try {
+            return switch (criteria.getSort()) {
+                case MOST_OFFERS -> invoiceRepository.findOpenListingRowsByOfferCount(
+                        FinancingRequestStatus.OPEN, criteria.getMinAmount(), criteria.getMaxAmount(),
+                        criteria.getBuyerGstin(), criteria.getMinRate(), criteria.getMaxTenorDays(),
+                        searchHits == null, searchIdsParam(searchHits),
+                        sortValue != null ? Integer.valueOf(sortValue) : null,
+                        cursorCreatedAt, cursorId, page);
+                case BEST_RATE -> invoiceRepository.findOpenListingRowsByBestRate(
+                        FinancingRequestStatus.OPEN, criteria.getMinAmount(), criteria.getMaxAmount(),
+                        criteria.getBuyerGstin(), criteria.getMinRate(), criteria.getMaxTenorDays(),
+                        searchHits == null, searchIdsParam(searchHits), NO_BEST_RATE,
+                        sortValue != null ? new BigDecimal(sortValue) : null,
+                        cursorCreatedAt, cursorId, page);
+                case LATEST_OFFER -> invoiceRepository.findOpenListingRowsByLastOffer(
+                        FinancingRequestStatus.OPEN, criteria.getMinAmount(), criteria.getMaxAmount(),
+                        criteria.getBuyerGstin(), criteria.getMinRate(), criteria.getMaxTenorDays(),
+                        searchHits == null, searchIdsParam(searchHits), NO_OFFER_YET,
+                        sortValue != null ? LocalDateTime.parse(sortValue) : null,
+                        cursorCreatedAt, cursorId, page);
+                default -> invoiceRepository.findOpenListingRowsPage(
+                        FinancingRequestStatus.OPEN, criteria.getMinAmount(), criteria.getMaxAmount(),
+                        criteria.getBuyerGstin(), criteria.getMinRate(), criteria.getMaxTenorDays(),
+                        searchHits == null, searchIdsParam(searchHits), cursorCreatedAt, cursorId, page);
+            };
+        } catch (NumberFormatException | DateTimeParseException e) {
+            throw new BadRequestException("Cursor does not match the requested sort");
+        }
+    }
+    
+    // The listing queries ignore searchIds when there is no search, but an IN list cannot be empty
+    private static Collection<Long> searchIdsParam(Set<Long> searchHits) {
+        return searchHits != null ? searchHits : NO_SEARCH_IDS;
+    }
+    
+    // Listings without offers sort as NO_BEST_RATE / NO_OFFER_YET, so their cursors carry those too
+    private static MarketplaceCursor cursorAfter(InvoiceListingRow last, MarketplaceSort sort) {
+        String sortValue = switch (sort) {
+            case MOST_OFFERS -> String.valueOf(last.getOfferCount());
+            case BEST_RATE -> (last.getBestRate() != null ? last.getBestRate() : NO_BEST_RATE).toPlainString();
+            case LATEST_OFFER -> (last.getLastOfferAt() != null ? last.getLastOfferAt() : NO_OFFER_YET).toString();
+            default -> null;
+        };
+        return new MarketplaceCursor(last.getCreatedAt(), last.getId(), sortValue);
+    }
+    
     private InvoiceResponse mapToInvoiceResponse(Invoice invoice) {
-        // Get document download URL if document exists
-        String documentDownloadUrl = null;
-        if (invoice.getDocument() != null) {
-            try {
-                documentDownloadUrl = documentService.getDownloadUrl(invoice.getDocument().getId()).getUrl();
-            } catch (Exception e) {
-                log.warn("Failed to generate download URL for document {}: {}", 
-                        invoice.getDocument().getId(), e.getMessage());
-            }
+        return mapToInvoiceResponse(invoice, resolveDocumentUrls(List.of(invoice)));
+    }
+    
+    private List<InvoiceResponse> mapToInvoiceResponses(List<InvoiceListingRow> rows, User caller) {
+        return rows.stream()
+                .map(row -> mapToInvoiceResponse(row, caller))
+                .collect(Collectors.toList());
+    }
+    
+    // Listing responses only differ by caller in which document URLs they include: admins see all of
+    // them, borrowers see their own, everyone else sees none. Callers sharing a scope can share results.
+    private String callerScope() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !(authentication.getPrincipal() instanceof UserPrincipal principal)) {
+            return "anonymous";
+        }
+        if (principal.hasRole(UserRole.ADMIN)) {
+            return "admin";
+        }
+        if (principal.hasRole(UserRole.BORROWER)) {
+            return "user:" + principal.getId();
+        }
+        return "public";
+    }
+    
+    // Listings still render when the caller cannot be resolved, just without download URLs
+    private User resolveCaller() {
+        try {
+            return userService.getCurrentUser();
+        } catch (Exception e) {
+            log.warn("Failed to resolve current user for document URLs: {}", e.getMessage());
+            return null;
+        }
+    }
+    
+    private Map<Long, String> resolveDocumentUrls(List<Invoice> invoices) {
+        Set<Long> documentIds = invoices.stream()
+                .map(Invoice::getDocument)
+                .filter(Objects::nonNull)
+                .map(Document::getId)
+                .collect(Collectors.toSet());
+        
+        if (documentIds.isEmpty()) {
+            return Map.of();
         }
         
+        try {
+            return documentService.getDownloadUrls(documentIds);
+        } catch (Exception e) {
+            log.warn("Failed to generate download URLs for {} documents: {}", documentIds.size(), e.getMessage());
+            return Map.of();
+        }
+    }
+    
+    private InvoiceResponse mapToInvoiceResponse(Invoice invoice, Map<Long, String> documentUrls) {
+        // Get document download URL if document exists and the caller may download it
+        String documentDownloadUrl = invoice.getDocument() != null
+                ? documentUrls.get(invoice.getDocument().getId())
+                : null;
+        // Bidding on an auction is sealed, so its offer stats are neither kept nor shown
+        boolean showOfferStats = !invoice.isAuction();
+        
         return InvoiceResponse.builder()
                 .id(invoice.getId().toString())
                 .borrowerUserId(invoice.getBorrowerUser().getId().toString())
@@ -215,12 +490,60 @@ public class InvoiceService {
                 .documentId(invoice.getDocument() != null ? invoice.getDocument().getId().toString() : null)
                 .documentDownloadUrl(documentDownloadUrl)
                 .status(invoice.getStatus())
+                .auctionEndsAt(invoice.getAuctionEndsAt())
+                .syndicated(invoice.isSyndicated())
+                .fundedAmount(invoice.getFundedAmount())
+                .offerCount(showOfferStats ? invoice.getOfferCount() : null)
+                .bestRate(showOfferStats ? invoice.getBestRate() : null)
+                .lastOfferAt(showOfferStats ? invoice.getLastOfferAt() : null)
                 .createdAt(invoice.getCreatedAt())
                 .updatedAt(invoice.getUpdatedAt())
                 .tenorDays(invoice.getTenorDays())
                 .build();
     }
+    
+    private InvoiceResponse mapToInvoiceResponse(InvoiceListingRow row, User caller) {
+        String documentDownloadUrl = null;
+        if (row.getDocumentId() != null && caller != null) {
+            try {
+                documentDownloadUrl = documentService.getDownloadUrl(
+                        row.getDocumentS3Key(), row.getDocumentOwnerUserId(), caller);
+            } catch (Exception e) {
+                log.warn("Failed to generate download URL for document {}: {}", row.getDocumentId(), e.getMessage());
+            }
+        }
+        
+        boolean showOfferStats = row.getAuctionEndsAt() == null;
+        
+        return InvoiceResponse.builder()
+                .id(row.getId().toString())
+                .borrowerUserId(row.getBorrowerUserId().toString())
+                .borrowerCompanyName(row.getBorrowerCompanyName())
+                .borrowerFullName(row.getBorrowerFullName())
+                .type(row.getType())
+                .invoiceNumber(row.getInvoiceNumber())
+                .buyerName(row.getBuyerName())
+                .buyerGstin(row.getBuyerGstin())
+                .invoiceDate(row.getInvoiceDate())
+                .dueDate(row.getDueDate())
+                .invoiceAmount(row.getInvoiceAmount())
+                .requestedAmount(row.getRequestedAmount())
+                .minAcceptAmount(row.getMinAcceptAmount())
+                .expectedInterestRate(row.getExpectedInterestRate())
+                .currency(row.getCurrency())
+                .location(row.getLocation())
+                .documentId(row.getDocumentId() != null ? row.getDocumentId().toString() : null)
+                .documentDownloadUrl(documentDownloadUrl)
+                .status(row.getStatus())
+                .auctionEndsAt(row.getAuctionEndsAt())
+                .syndicated(row.isSyndicated())
+                .fundedAmount(row.getFundedAmount())
+                .offerCount(showOfferStats ? row.getOfferCount() : null)
+                .bestRate(showOfferStats ? row.getBestRate() : null)
+                .lastOfferAt(showOfferStats ? row.getLastOfferAt() : null)
+                .createdAt(row.getCreatedAt())
+                .updatedAt(row.getUpdatedAt())
+                .tenorDays(ChronoUnit.DAYS.between(row.getInvoiceDate(), row.getDueDate()))
+                .build();
+    }
 }
-
-
-
@@ -16,7 +16,10 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
@@ -26,6 +29,7 @@ public class KycService {
     private final KycDocumentRepository kycDocumentRepository;
     private final DocumentService documentService;
     private final UserService userService;
+    private final KycStatusService kycStatusService;
     
     public PresignedUrlResponse getAadhaarPresignedUrl(PresignedUrlRequest request) {
         return documentService.generatePresignedUrl(DocumentType.KYC_AADHAAR, request);
@@ -68,6 +72,8 @@ public class KycService {
         }
         
         kycDocument = kycDocumentRepository.save(kycDocument);
+        currentUser.setKycSubmittedAt(LocalDateTime.now());
+        kycStatusService.changeStatus(currentUser, KycStatus.PENDING);
         
         log.info("KYC submitted for user: {}", currentUser.getId());
         return mapToKycResponse(kycDocument);
@@ -101,8 +107,8 @@ public class KycService {
         KycDocument kycDocument = kycDocumentRepository.findByUser(targetUser)
                 .orElseThrow(() -> new ResourceNotFoundException("No KYC record found for this user"));
         
-        kycDocument.setStatus(KycStatus.VERIFIED);
         kycDocument.setRemarks(remarks);
+        kycStatusService.changeStatus(targetUser, KycStatus.VERIFIED);
         kycDocument = kycDocumentRepository.save(kycDocument);
         
         log.info("KYC approved for user: {} by admin: {}", userId, currentUser.getId());
@@ -120,8 +126,9 @@ public class KycService {
         KycDocument kycDocument = kycDocumentRepository.findByUser(targetUser)
                 .orElseThrow(() -> new ResourceNotFoundException("No KYC record found for this user"));
         
-        kycDocument.setStatus(KycStatus.REJECTED);
         kycDocument.setRemarks(remarks);
+        targetUser.setKycRejectionReason(remarks);
+        kycStatusService.changeStatus(targetUser, KycStatus.REJECTED);
         kycDocument = kycDocumentRepository.save(kycDocument);
         
         log.info("KYC rejected for user: {} by admin: {}", userId, currentUser.getId());
@@ -129,14 +136,12 @@ public class KycService {
     }
     
     public boolean isUserKycVerified(Long userId) {
-        try {
-            User user = userService.getUserById(userId);
-            Optional<KycDocument> kycDocument = kycDocumentRepository.findByUser(user);
-            return kycDocument.isPresent() && KycStatus.VERIFIED.equals(kycDocument.get().getStatus());
-        } catch (Exception e) {
-            log.warn("Failed to check KYC status for user {}: {}", userId, e.getMessage());
-            return false;
-        }
+        return kycStatusService.isVerified(userId);
+    }
+    
+    // Which of the given users are KYC verified; served from the KYC status cache
+    public Set<Long> findVerifiedUserIds(Collection<Long> userIds) {
+        return kycStatusService.findVerifiedUserIds(userIds);
     }
     
     private KycResponse mapToKycResponse(KycDocument kycDocument) {
@@ -0,0 +1,230 @@
+package com.invoicefinance.service;
+
+import com.invoicefinance.dto.CacheStatsResponse;
+import com.invoicefinance.entity.KycStatus;
+import com.invoicefinance.entity.User;
+import com.invoicefinance.event.KycStatusChangedEvent;
+import com.invoicefinance.repository.KycDocumentRepository;
+import com.invoicefinance.repository.KycStatusChangeRepository;
+import com.invoicefinance.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// The one place KYC status is read and written. users.kyc_status is the status of record; the KYC
+// document, when there is one, is kept in step with it. Reads are served from a node-local cache.
+// A change invalidates the entry here after commit and, through kyc_status_changes, on every other
+// node at the next poll. Polls re-read a grace window of recent changes because a transaction can
+// commit a change stamped earlier than one already seen.
+@Service
+@Slf4j
+public class KycStatusService {
+    
+    private final UserRepository userRepository;
+    private final KycDocumentRepository kycDocumentRepository;
+    private final KycStatusChangeRepository changeRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int maxEntries;
+    private final long changeGraceSeconds;
+    private final long changeRetentionHours;
+    
+    private final Map<Long, KycStatus> statuses = new ConcurrentHashMap<>();
+    
+    // Bumped on every invalidation; a load that raced with one is returned but not cached
+    private final AtomicLong invalidations = new AtomicLong();
+    
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    
+    // Guarded by this; pollSince is null until the first poll
+    private LocalDateTime pollSince;
+    // Change ids already applied from the current grace window
+    private Set<Long> appliedChangeIds = new HashSet<>();
+    
+    public KycStatusService(
+            UserRepository userRepository,
+            KycDocumentRepository kycDocumentRepository,
+            KycStatusChangeRepository changeRepository,
+            ApplicationEventPublisher eventPublisher,
+            @Value("${app.kyc.status-cache.max-entries:100000}") int maxEntries,
+            @Value("${app.kyc.status-cache.change-grace-seconds:60}") long changeGraceSeconds,
+            @Value("${app.kyc.status-cache.change-retention-hours:24}") long changeRetentionHours) {
+        this.userRepository = userRepository;
+        this.kycDocumentRepository = kycDocumentRepository;
+        this.changeRepository = changeRepository;
+        this.eventPublisher = eventPublisher;
+        this.maxEntries = Math.max(1, maxEntries);
+        this.changeGraceSeconds = Math.max(1, changeGraceSeconds);
+        this.changeRetentionHours = Math.max(1, changeRetentionHours);
+    }
+    
+    // Sets the user's KYC status in the caller's transaction, on the user and on the KYC document
+    @Transactional
+    public void changeStatus(User user, KycStatus status) {
+        LocalDateTime now = LocalDateTime.now();
+        user.setKycStatus(status);
+        if (KycStatus.VERIFIED.equals(status)) {
+            user.setKycApprovedAt(now);
+            user.setKycRejectedAt(null);
+            user.setKycRejectionReason(null);
+        } else if (KycStatus.REJECTED.equals(status)) {
+            user.setKycRejectedAt(now);
+            user.setKycApprovedAt(null);
+        }
+        
+        kycDocumentRepository.findByUser(user).ifPresent(document -> document.setStatus(status));
+        changeRepository.record(user.getId(), status);
+        eventPublisher.publishEvent(new KycStatusChangedEvent(user.getId(), status));
+        
+        log.info("KYC status of user {} set to {}", user.getId(), status);
+    }
+    
+    public KycStatus getStatus(Long userId) {
+        return getStatuses(List.of(userId)).getOrDefault(userId, KycStatus.PENDING);
+    }
+    
+    public boolean isVerified(Long userId) {
+        return KycStatus.VERIFIED.equals(getStatus(userId));
+    }
+    
+    // Which of the given users are KYC verified; only uncached users cost a (single) query
+    public Set<Long> findVerifiedUserIds(Collection<Long> userIds) {
+        Set<Long> verified = new HashSet<>();
+        getStatuses(userIds).forEach((userId, status) -> {
+            if (KycStatus.VERIFIED.equals(status)) {
+                verified.add(userId);
+            }
+        });
+        return verified;
+    }
+    
+    public CacheStatsResponse getStats() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long lookups = hitCount + missCount;
+        
+        return CacheStatsResponse.builder()
+                .name("kyc-status")
+                .size(statuses.size())
+                .maxEntries(maxEntries)
+                .hits(hitCount)
+                .misses(missCount)
+                .hitRate(lookups == 0 ? 0.0 : (double) hitCount / lookups)
+                .evictions(evictions.sum())
+                .invalidations(invalidations.get())
+                .build();
+    }
+    
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onKycStatusChanged(KycStatusChangedEvent event) {
+        invalidate(event.getUserId());
+    }
+    
+    @Scheduled(fixedDelayString = "${app.kyc.status-cache.poll-interval-ms:2000}",
+            initialDelayString = "${app.kyc.status-cache.poll-interval-ms:2000}")
+    public synchronized void pollChanges() {
+        try {
+            LocalDateTime now = changeRepository.currentTime();
+            if (pollSince == null) {
+                // The cache starts empty, so only changes from here on matter
+                pollSince = now.minusSeconds(changeGraceSeconds);
+            }
+            Set<Long> windowIds = new HashSet<>();
+            for (KycStatusChangeRepository.Change change : changeRepository.findChangedSince(pollSince)) {
+                windowIds.add(change.id());
+                if (!appliedChangeIds.contains(change.id())) {
+                    invalidate(change.userId());
+                }
+            }
+            appliedChangeIds = windowIds;
+            pollSince = now.minusSeconds(changeGraceSeconds);
+        } catch (Exception e) {
+            log.warn("Failed to poll KYC status changes: {}", e.getMessage());
+        }
+    }
+    
+    @Scheduled(fixedDelayString = "${app.kyc.status-cache.change-cleanup-interval-ms:3600000}",
+            initialDelayString = "${app.kyc.status-cache.change-cleanup-interval-ms:3600000}")
+    public void pruneChanges() {
+        try {
+            int deleted = changeRepository.deleteChangedBefore(
+                    changeRepository.currentTime().minusHours(changeRetentionHours));
+            if (deleted > 0) {
+                log.debug("Pruned {} KYC status changes", deleted);
+            }
+        } catch (Exception e) {
+            log.warn("Failed to prune KYC status changes: {}", e.getMessage());
+        }
+    }
+    
+    private Map<Long, KycStatus> getStatuses(Collection<Long> userIds) {
+        Map<Long, KycStatus> result = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        for (Long userId : userIds) {
+            KycStatus status = statuses.get(userId);
+            if (status != null) {
+                hits.increment();
+                result.put(userId, status);
+            } else if (!result.containsKey(userId)) {
+                missing.add(userId);
+            }
+        }
+        if (missing.isEmpty()) {
+            return result;
+        }
+        
+        misses.add(missing.size());
+        long generation = invalidations.get();
+        Map<Long, KycStatus> loaded = new HashMap<>();
+        for (Object[] row : userRepository.findKycStatusesByIdIn(missing)) {
+            loaded.put((Long) row[0], (KycStatus) row[1]);
+        }
+        result.putAll(loaded);
+        
+        if (invalidations.get() == generation) {
+            statuses.putAll(loaded);
+            if (statuses.size() > maxEntries) {
+                trim();
+            }
+        }
+        return result;
+    }
+    
+    private void invalidate(Long userId) {
+        invalidations.incrementAndGet();
+        statuses.remove(userId);
+    }
+    
+    // No recency is tracked, so trim arbitrary entries to 10% below the cap
+    private void trim() {
+        synchronized (statuses) {
+            Iterator<Long> iterator = statuses.keySet().iterator();
+            int excess = statuses.size() - maxEntries + maxEntries / 10;
+            while (excess > 0 && iterator.hasNext()) {
+                iterator.next();
+                iterator.remove();
+                evictions.increment();
+                excess--;
+            }
+        }
+    }
+}
@@ -0,0 +1,257 @@
+package com.invoicefinance.service;
+
+import com.invoicefinance.entity.Invoice;
+
+import java.math.BigDecimal;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntConsumer;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+// Inverted index of stored listing predicates (saved searches, auto-bid rules), used to find every
+// predicate a newly listed invoice satisfies without evaluating all of them. Predicates are
+// partitioned by each buyer GSTIN they allow (or "any buyer") and by log2 amount bucket; a listing
+// only checks the predicates registered under its own GSTIN and the wildcard partition, in its
+// amount bucket.
+public class ListingPredicateIndex<T> {
+    
+    // An empty buyerGstins set allows any buyer
+    public record Criteria(BigDecimal minAmount, BigDecimal maxAmount, Set<String> buyerGstins,
+                           BigDecimal minRate, Integer maxTenorDays, String search) {
+        
+        public Criteria {
+            buyerGstins = buyerGstins == null ? Set.of() : buyerGstins.stream()
+                    .filter(gstin -> gstin != null && !gstin.isBlank())
+                    .map(ListingPredicateIndex::normalizeGstin)
+                    .collect(Collectors.toUnmodifiableSet());
+            search = search == null || search.isBlank() ? null : search.trim().toLowerCase(Locale.ROOT);
+        }
+        
+        public static Criteria forBuyer(BigDecimal minAmount, BigDecimal maxAmount, String buyerGstin,
+                                        BigDecimal minRate, Integer maxTenorDays, String search) {
+            return new Criteria(minAmount, maxAmount, buyerGstin == null ? Set.of() : Collections.singleton(buyerGstin),
+                    minRate, maxTenorDays, search);
+        }
+        
+        // Same semantics as the marketplace filter query
+        public boolean matches(Invoice invoice) {
+            BigDecimal amount = invoice.getInvoiceAmount();
+            if (minAmount != null && amount.compareTo(minAmount) < 0) {
+                return false;
+            }
+            if (maxAmount != null && amount.compareTo(maxAmount) > 0) {
+                return false;
+            }
+            if (minRate != null && invoice.getExpectedInterestRate().compareTo(minRate) < 0) {
+                return false;
+            }
+            if (maxTenorDays != null
+                    && ChronoUnit.DAYS.between(invoice.getInvoiceDate(), invoice.getDueDate()) > maxTenorDays) {
+                return false;
+            }
+            if (search != null && !containsIgnoreCase(invoice.getBuyerName(), search)
+                    && !containsIgnoreCase(invoice.getInvoiceNumber(), search)) {
+                return false;
+            }
+            return buyerGstins.isEmpty()
+                    || (invoice.getBuyerGstin() != null && buyerGstins.contains(normalizeGstin(invoice.getBuyerGstin())));
+        }
+        
+        private static boolean containsIgnoreCase(String value, String lowerNeedle) {
+            return value != null && value.toLowerCase(Locale.ROOT).contains(lowerNeedle);
+        }
+    }
+    
+    public record Entry<T>(Long id, Criteria criteria, T payload) {
+    }
+    
+    private record Change<T>(Long id, Entry<T> entry) {
+    }
+    
+    private static final String ANY_BUYER = "*";
+    
+    // Bucket b holds amounts in [2^b, 2^(b+1)) rupees; 48 buckets cover anything a DECIMAL(15,2) holds
+    private static final int AMOUNT_BUCKETS = 48;
+    
+    private final Map<Long, Entry<T>> entries = new HashMap<>();
+    private final Map<String, List<Set<Long>>> partitions = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    
+    // Changes seen while a rebuild is loading, replayed on top of the loaded snapshot
+    private List<Change<T>> pendingChanges;
+    private volatile boolean ready;
+    
+    public boolean isReady() {
+        return ready;
+    }
+    
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    public List<Entry<T>> match(Invoice invoice) {
+        String gstin = invoice.getBuyerGstin() == null ? null : normalizeGstin(invoice.getBuyerGstin());
+        int bucket = bucketOf(invoice.getInvoiceAmount());
+        
+        List<Entry<T>> matches = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            collect(partitions.get(ANY_BUYER), bucket, invoice, matches);
+            if (gstin != null) {
+                collect(partitions.get(gstin), bucket, invoice, matches);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return matches;
+    }
+    
+    public void put(Long id, Criteria criteria, T payload) {
+        apply(new Change<>(id, new Entry<>(id, criteria, payload)));
+    }
+    
+    public void remove(Long id) {
+        apply(new Change<>(id, null));
+    }
+    
+    public void rebuild(Supplier<List<Entry<T>>> loader) {
+        beginRebuild();
+        List<Entry<T>> loaded;
+        try {
+            loaded = loader.get();
+        } catch (RuntimeException e) {
+            abortRebuild();
+            throw e;
+        }
+        completeRebuild(loaded);
+    }
+    
+    // Split form of rebuild() for callers that load several indexes from one query: changes made
+    // between beginRebuild() and completeRebuild() are replayed on top of the loaded entries
+    public void beginRebuild() {
+        lock.writeLock().lock();
+        try {
+            pendingChanges = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    public void abortRebuild() {
+        lock.writeLock().lock();
+        try {
+            pendingChanges = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    public void completeRebuild(List<Entry<T>> loaded) {
+        lock.writeLock().lock();
+        try {
+            entries.clear();
+            partitions.clear();
+            for (Entry<T> entry : loaded) {
+                register(entry);
+            }
+            if (pendingChanges != null) {
+                for (Change<T> change : pendingChanges) {
+                    replace(change);
+                }
+            }
+            pendingChanges = null;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    private void apply(Change<T> change) {
+        lock.writeLock().lock();
+        try {
+            if (pendingChanges != null) {
+                pendingChanges.add(change);
+            }
+            replace(change);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    private void replace(Change<T> change) {
+        Entry<T> previous = entries.remove(change.id());
+        if (previous != null) {
+            for (String partition : partitionsOf(previous.criteria())) {
+                List<Set<Long>> buckets = partitions.get(partition);
+                forEachBucket(previous.criteria(), bucket -> buckets.get(bucket).remove(previous.id()));
+            }
+        }
+        if (change.entry() != null) {
+            register(change.entry());
+        }
+    }
+    
+    private void register(Entry<T> entry) {
+        entries.put(entry.id(), entry);
+        for (String partition : partitionsOf(entry.criteria())) {
+            List<Set<Long>> buckets = partitions.computeIfAbsent(partition, key -> {
+                List<Set<Long>> created = new ArrayList<>(AMOUNT_BUCKETS);
+                for (int i = 0; i < AMOUNT_BUCKETS; i++) {
+                    created.add(new HashSet<>());
+                }
+                return created;
+            });
+            forEachBucket(entry.criteria(), bucket -> buckets.get(bucket).add(entry.id()));
+        }
+    }
+    
+    private void collect(List<Set<Long>> buckets, int bucket, Invoice invoice, List<Entry<T>> matches) {
+        if (buckets == null) {
+            return;
+        }
+        for (Long id : buckets.get(bucket)) {
+            Entry<T> entry = entries.get(id);
+            if (entry != null && entry.criteria().matches(invoice)) {
+                matches.add(entry);
+            }
+        }
+    }
+    
+    private static void forEachBucket(Criteria criteria, IntConsumer action) {
+        int from = criteria.minAmount() == null ? 0 : bucketOf(criteria.minAmount());
+        int to = criteria.maxAmount() == null ? AMOUNT_BUCKETS - 1 : bucketOf(criteria.maxAmount());
+        for (int bucket = from; bucket <= to; bucket++) {
+            action.accept(bucket);
+        }
+    }
+    
+    private static Set<String> partitionsOf(Criteria criteria) {
+        return criteria.buyerGstins().isEmpty() ? Set.of(ANY_BUYER) : criteria.buyerGstins();
+    }
+    
+    private static String normalizeGstin(String gstin) {
+        return gstin.trim().toUpperCase(Locale.ROOT);
+    }
+    
+    private static int bucketOf(BigDecimal amount) {
+        long rupees = amount == null ? 0 : amount.longValue();
+        if (rupees <= 1) {
+            return 0;
+        }
+        return Math.min(AMOUNT_BUCKETS - 1, 63 - Long.numberOfLeadingZeros(rupees));
+    }
+}
@@ -0,0 +1,51 @@
+package com.invoicefinance.service;
+
+import com.invoicefinance.exception.BadRequestException;
+import lombok.AllArgsConstructor;
+import lombok.Value;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+// Opaque keyset cursor over the marketplace ordering (createdAt DESC, id DESC), led by the sort key
+// of the requested MarketplaceSort when it is not the default one.
+// Clients only ever see the encoded form and pass it back unchanged.
+@Value
+@AllArgsConstructor
+public class MarketplaceCursor {
+    
+    LocalDateTime createdAt;
+    Long id;
+    // String form of the leading sort key; null for the default ordering
+    String sortValue;
+    
+    public MarketplaceCursor(LocalDateTime createdAt, Long id) {
+        this(createdAt, id, null);
+    }
+    
+    public String encode() {
+        String raw = (sortValue != null ? sortValue + "|" : "") + createdAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    public static MarketplaceCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", -1);
+            if (parts.length < 2 || parts.length > 3) {
+                throw new BadRequestException("Invalid cursor");
+            }
+            int offset = parts.length - 2;
+            return new MarketplaceCursor(
+                    LocalDateTime.parse(parts[offset]),
+                    Long.parseLong(parts[offset + 1]),
+                    offset == 1 ? parts[0] : null);
+        } catch (RuntimeException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+}
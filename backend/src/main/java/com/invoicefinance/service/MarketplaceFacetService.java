@@ -0,0 +1,237 @@
+package com.invoicefinance.service;
+
+import com.invoicefinance.dto.MarketplaceFacetsResponse;
+import com.invoicefinance.entity.FinancingRequestStatus;
+import com.invoicefinance.entity.Invoice;
+import com.invoicefinance.entity.InvoiceType;
+import com.invoicefinance.event.InvoiceStatusChangedEvent;
+import com.invoicefinance.repository.InvoiceRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+// Open-marketplace facet counters, adjusted on every listing/delisting and periodically
+// reconciled against the database. Reads return a cached snapshot that is rebuilt only after a change.
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class MarketplaceFacetService {
+    
+    private static final int TOP_BUYERS = 10;
+    
+    private static final BigDecimal ONE_LAKH = new BigDecimal("100000");
+    private static final BigDecimal TEN_LAKH = new BigDecimal("1000000");
+    private static final BigDecimal FIFTY_LAKH = new BigDecimal("5000000");
+    private static final BigDecimal ONE_CRORE = new BigDecimal("10000000");
+    
+    private final InvoiceRepository invoiceRepository;
+    
+    private final Object monitor = new Object();
+    private Counts counts = new Counts();
+    // Listing state of invoices changed while a reconciliation is reading, keyed by invoice id
+    private Map<Long, PendingChange> pendingChanges;
+    private LocalDateTime reconciledAt;
+    private volatile MarketplaceFacetsResponse snapshot;
+    
+    private record FacetValues(String amountBucket, String tenorBucket, String type,
+                               String currency, String location, String buyer) {
+    }
+    
+    private record Delta(FacetValues values, int change) {
+    }
+    
+    private record PendingChange(FacetValues values, boolean open) {
+    }
+    
+    public MarketplaceFacetsResponse getFacets() {
+        MarketplaceFacetsResponse current = snapshot;
+        if (current != null) {
+            return current;
+        }
+        
+        synchronized (monitor) {
+            if (snapshot == null) {
+                snapshot = counts.toResponse(reconciledAt);
+            }
+            return snapshot;
+        }
+    }
+    
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onInvoiceStatusChanged(InvoiceStatusChangedEvent event) {
+        if (event.isListed()) {
+            apply(event.getInvoice().getId(), new Delta(facetValues(event.getInvoice()), 1));
+        } else if (event.isDelisted()) {
+            apply(event.getInvoice().getId(), new Delta(facetValues(event.getInvoice()), -1));
+        }
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        reconcile();
+    }
+    
+    @Scheduled(fixedDelayString = "${app.marketplace.facets.reconcile-interval-ms:300000}",
+               initialDelayString = "${app.marketplace.facets.reconcile-interval-ms:300000}")
+    public void reconcile() {
+        synchronized (monitor) {
+            pendingChanges = new HashMap<>();
+        }
+        
+        Counts fresh = new Counts();
+        Set<Long> freshIds = new HashSet<>();
+        try {
+            for (Object[] row : invoiceRepository.findFacetRowsByStatus(FinancingRequestStatus.OPEN)) {
+                freshIds.add((Long) row[0]);
+                fresh.add(facetValues((BigDecimal) row[1], (LocalDate) row[2], (LocalDate) row[3],
+                        (InvoiceType) row[4], (String) row[5], (String) row[6], (String) row[7]), 1);
+            }
+        } catch (RuntimeException e) {
+            synchronized (monitor) {
+                pendingChanges = null;
+            }
+            log.warn("Marketplace facet reconciliation failed: {}", e.getMessage());
+            return;
+        }
+        
+        synchronized (monitor) {
+            // Changes committed while we were reading may or may not be in the rows. Each invoice's
+            // latest state is applied only where the rows disagree with it, so nothing counts twice.
+            pendingChanges.forEach((invoiceId, change) -> {
+                if (change.open() && !freshIds.contains(invoiceId)) {
+                    fresh.add(change.values(), 1);
+                } else if (!change.open() && freshIds.contains(invoiceId)) {
+                    fresh.add(change.values(), -1);
+                }
+            });
+            pendingChanges = null;
+            
+            if (reconciledAt != null && fresh.total != counts.total) {
+                log.info("Marketplace facets drifted: {} open invoices counted, {} in database",
+                        counts.total, fresh.total);
+            }
+            counts = fresh;
+            reconciledAt = LocalDateTime.now();
+            snapshot = null;
+        }
+    }
+    
+    private void apply(Long invoiceId, Delta delta) {
+        synchronized (monitor) {
+            if (pendingChanges != null) {
+                pendingChanges.put(invoiceId, new PendingChange(delta.values(), delta.change() > 0));
+            }
+            counts.add(delta.values(), delta.change());
+            snapshot = null;
+        }
+    }
+    
+    private FacetValues facetValues(Invoice invoice) {
+        return facetValues(invoice.getInvoiceAmount(), invoice.getInvoiceDate(), invoice.getDueDate(),
+                invoice.getType(), invoice.getCurrency(), invoice.getLocation(), invoice.getBuyerName());
+    }
+    
+    private FacetValues facetValues(BigDecimal amount, LocalDate invoiceDate, LocalDate dueDate,
+                                    InvoiceType type, String currency, String location, String buyerName) {
+        return new FacetValues(
+                amountBucket(amount),
+                tenorBucket(ChronoUnit.DAYS.between(invoiceDate, dueDate)),
+                type.name(),
+                currency,
+                location == null || location.isBlank() ? null : location.trim(),
+                buyerName.trim());
+    }
+    
+    private static String amountBucket(BigDecimal amount) {
+        if (amount.compareTo(ONE_LAKH) < 0) return "UNDER_1L";
+        if (amount.compareTo(TEN_LAKH) < 0) return "1L_10L";
+        if (amount.compareTo(FIFTY_LAKH) < 0) return "10L_50L";
+        if (amount.compareTo(ONE_CRORE) < 0) return "50L_1CR";
+        return "1CR_PLUS";
+    }
+    
+    private static String tenorBucket(long tenorDays) {
+        if (tenorDays <= 30) return "UP_TO_30";
+        if (tenorDays <= 60) return "31_60";
+        if (tenorDays <= 90) return "61_90";
+        if (tenorDays <= 180) return "91_180";
+        return "OVER_180";
+    }
+    
+    private static final class Counts {
+        private long total;
+        private final Map<String, Long> amountBuckets = new HashMap<>();
+        private final Map<String, Long> tenorBuckets = new HashMap<>();
+        private final Map<String, Long> types = new HashMap<>();
+        private final Map<String, Long> currencies = new HashMap<>();
+        private final Map<String, Long> locations = new HashMap<>();
+        private final Map<String, Long> buyers = new HashMap<>();
+        
+        void add(FacetValues values, int change) {
+            total += change;
+            adjust(amountBuckets, values.amountBucket(), change);
+            adjust(tenorBuckets, values.tenorBucket(), change);
+            adjust(types, values.type(), change);
+            adjust(currencies, values.currency(), change);
+            adjust(locations, values.location(), change);
+            adjust(buyers, values.buyer(), change);
+        }
+        
+        private static void adjust(Map<String, Long> counter, String key, int change) {
+            if (key == null) {
+                return;
+            }
+            // Drop keys that reach zero so stale locations and buyers do not linger
+            counter.merge(key, (long) change, (a, b) -> a + b == 0 ? null : a + b);
+        }
+        
+        MarketplaceFacetsResponse toResponse(LocalDateTime reconciledAt) {
+            Map<String, Map<String, Long>> facets = new LinkedHashMap<>();
+            facets.put("amount", ordered(amountBuckets, "UNDER_1L", "1L_10L", "10L_50L", "50L_1CR", "1CR_PLUS"));
+            facets.put("tenor", ordered(tenorBuckets, "UP_TO_30", "31_60", "61_90", "91_180", "OVER_180"));
+            facets.put("type", byCountDescending(types, Integer.MAX_VALUE));
+            facets.put("currency", byCountDescending(currencies, Integer.MAX_VALUE));
+            facets.put("location", byCountDescending(locations, Integer.MAX_VALUE));
+            facets.put("topBuyers", byCountDescending(buyers, TOP_BUYERS));
+            
+            return MarketplaceFacetsResponse.builder()
+                    .totalOpen(total)
+                    .facets(facets)
+                    .reconciledAt(reconciledAt)
+                    .build();
+        }
+        
+        private static Map<String, Long> ordered(Map<String, Long> counter, String... buckets) {
+            Map<String, Long> result = new LinkedHashMap<>();
+            for (String bucket : buckets) {
+                result.put(bucket, counter.getOrDefault(bucket, 0L));
+            }
+            return result;
+        }
+        
+        private static Map<String, Long> byCountDescending(Map<String, Long> counter, int limit) {
+            Map<String, Long> result = new LinkedHashMap<>();
+            counter.entrySet().stream()
+                    .sorted(Map.Entry.<String, Long>comparingByValue().reversed()
+                            .thenComparing(Map.Entry.comparingByKey()))
+                    .limit(limit)
+                    .forEach(entry -> result.put(entry.getKey(), entry.getValue()));
+            return result;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.invoicefinance.service;
+
+import com.invoicefinance.dto.MarketplaceFilter;
+import com.invoicefinance.event.FundingOfferChangedEvent;
+import com.invoicefinance.event.InvoiceStatusChangedEvent;
+import com.invoicefinance.event.ListingUpdatedEvent;
+import com.invoicefinance.security.UserPrincipal;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.security.SecureRandom;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Generation counters for the OPEN marketplace, bumped after every committed listing, delisting or
+// in-place listing change, plus one for offer activity, which changes the offer stats and offer-based
+// ordering of listings. A marketplace response is fully determined by (generation, query, caller), so
+// that tuple is its ETag and an unchanged poll can be answered with 304 before any query or
+// serialization. The counters are node-local and restart at zero, so every ETag also carries a random
+// per-boot id: tags from another node or an earlier run never match.
+@Component
+public class MarketplaceGenerationTracker {
+    
+    private final AtomicLong globalGeneration = new AtomicLong();
+    private final Map<String, AtomicLong> buyerGenerations = new ConcurrentHashMap<>();
+    private final AtomicLong offerGeneration = new AtomicLong();
+    private final String bootId = Long.toHexString(new SecureRandom().nextLong());
+    
+    // Counters are node-local; the epoch caps how long a change made on another node can go unseen
+    private final long maxStalenessMillis;
+    
+    public MarketplaceGenerationTracker(
+            @Value("${app.marketplace.etag.max-staleness-seconds:30}") long maxStalenessSeconds) {
+        this.maxStalenessMillis = Math.max(1, maxStalenessSeconds) * 1000;
+    }
+    
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onInvoiceStatusChanged(InvoiceStatusChangedEvent event) {
+        if (event.isListed() || event.isDelisted()) {
+            bump(event.getInvoice().getBuyerGstin());
+        }
+    }
+    
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onListingUpdated(ListingUpdatedEvent event) {
+        bump(event.getBuyerGstin());
+    }
+    
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onFundingOfferChanged(FundingOfferChangedEvent event) {
+        if (event.isActivated() || event.isDeactivated()) {
+            offerGeneration.incrementAndGet();
+        }
+    }
+    
+    public long currentGeneration() {
+        return globalGeneration.get();
+    }
+    
+    public String etag(MarketplaceFilter filter, String cursor, Integer limit, boolean includeCount) {
+        MarketplaceFilter criteria = filter.normalized();
+        
+        // A buyer-scoped query only changes when that buyer's listings do. Entries are only created by
+        // listing events, so arbitrary GSTINs in polls cannot grow the map.
+        long generation;
+        if (criteria.getBuyerGstin() != null) {
+            AtomicLong buyerGeneration = buyerGenerations.get(criteria.getBuyerGstin());
+            generation = buyerGeneration != null ? buyerGeneration.get() : 0;
+        } else {
+            generation = globalGeneration.get();
+        }
+        
+        long epoch = System.currentTimeMillis() / maxStalenessMillis;
+        int queryHash = Objects.hash(criteria, cursor, limit, includeCount, currentUserId(), epoch);
+        
+        return "\"" + bootId + "-" + Long.toHexString(generation) + "-" + Long.toHexString(offerGeneration.get())
+                + "-" + Integer.toHexString(queryHash) + "\"";
+    }
+    
+    private void bump(String buyerGstin) {
+        if (buyerGstin != null && !buyerGstin.isBlank()) {
+            buyerGenerations.computeIfAbsent(buyerGstin.trim(), key -> new AtomicLong()).incrementAndGet();
+        }
+        globalGeneration.incrementAndGet();
+    }
+    
+    // Responses carry document URLs only for the owner or an admin, so they vary per caller
+    private Long currentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof UserPrincipal principal) {
+            return principal.getId();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,287 @@
+package com.invoicefinance.service;
+
+import com.invoicefinance.dto.MarketplaceFilter;
+import com.invoicefinance.dto.MarketplaceStreamEvent;
+import com.invoicefinance.entity.FinancingRequestStatus;
+import com.invoicefinance.entity.Invoice;
+import com.invoicefinance.event.FundingOfferChangedEvent;
+import com.invoicefinance.event.InvoiceStatusChangedEvent;
+import com.invoicefinance.event.MarketplaceStreamOpenedEvent;
+import com.invoicefinance.repository.InvoiceRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Pushes marketplace changes to connected lenders over SSE. Committed events are turned into one
+// payload on a single publisher thread, then fanned out into bounded per-connection buffers that a
+// small writer pool drains, so a slow client can only ever lose its own oldest events. Offer activity
+// is coalesced per invoice over a short window, so a burst of offers on one listing (e.g. a bulk
+// submit) becomes one OFFERS_CHANGED event carrying the invoice's denormalized offer count.
+@Service
+@Slf4j
+public class MarketplaceStreamService {
+    
+    private final InvoiceRepository invoiceRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    
+    private final Map<Long, Subscription> subscriptions = new ConcurrentHashMap<>();
+    private final AtomicLong subscriptionIds = new AtomicLong();
+    private final AtomicLong eventIds = new AtomicLong();
+    
+    private final ScheduledExecutorService publisher = Executors.newSingleThreadScheduledExecutor(
+            runnable -> daemon(runnable, "marketplace-stream-publisher"));
+    private final ExecutorService writers;
+    
+    // Invoices with offer activity not yet broadcast; a flush is scheduled when the first one arrives
+    private final Set<Long> offerChangedInvoices = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean offerFlushScheduled = new AtomicBoolean();
+    
+    private final long timeoutMillis;
+    private final int bufferSize;
+    private final long offerCoalesceMillis;
+    
+    public MarketplaceStreamService(
+            InvoiceRepository invoiceRepository,
+            ApplicationEventPublisher eventPublisher,
+            @Value("${app.marketplace.stream.timeout-ms:1800000}") long timeoutMillis,
+            @Value("${app.marketplace.stream.buffer-size:256}") int bufferSize,
+            @Value("${app.marketplace.stream.writer-threads:4}") int writerThreads,
+            @Value("${app.marketplace.stream.offer-coalesce-ms:250}") long offerCoalesceMillis) {
+        this.invoiceRepository = invoiceRepository;
+        this.eventPublisher = eventPublisher;
+        this.timeoutMillis = timeoutMillis;
+        this.offerCoalesceMillis = Math.max(0, offerCoalesceMillis);
+        this.bufferSize = Math.max(1, bufferSize);
+        this.writers = Executors.newFixedThreadPool(Math.max(1, writerThreads),
+                runnable -> daemon(runnable, "marketplace-stream-writer"));
+    }
+    
+    public SseEmitter subscribe(Long userId, MarketplaceFilter filter) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscription subscription = new Subscription(
+                subscriptionIds.incrementAndGet(), userId, filter.normalized(), emitter, bufferSize);
+        
+        emitter.onCompletion(() -> subscriptions.remove(subscription.id));
+        emitter.onTimeout(() -> subscriptions.remove(subscription.id));
+        emitter.onError(error -> subscriptions.remove(subscription.id));
+        subscriptions.put(subscription.id, subscription);
+        
+        enqueue(subscription, SseEmitter.event().comment("connected"));
+        log.debug("Marketplace stream {} opened for user: {}", subscription.id, userId);
+        eventPublisher.publishEvent(new MarketplaceStreamOpenedEvent(userId));
+        return emitter;
+    }
+    
+    // Delivers an event to every connection of one user, regardless of their marketplace filter;
+    // returns the number of connections it was queued on
+    public int sendToUser(Long userId, String name, Object payload) {
+        int sent = 0;
+        for (Subscription subscription : subscriptions.values()) {
+            if (subscription.userId.equals(userId)) {
+                enqueue(subscription, SseEmitter.event()
+                        .id(Long.toString(eventIds.incrementAndGet()))
+                        .name(name)
+                        .data(payload));
+                sent++;
+            }
+        }
+        return sent;
+    }
+    
+    // Users with at least one open stream on this node
+    public Set<Long> connectedUserIds() {
+        Set<Long> userIds = new HashSet<>();
+        for (Subscription subscription : subscriptions.values()) {
+            userIds.add(subscription.userId);
+        }
+        return userIds;
+    }
+    
+    public int getConnectionCount() {
+        return subscriptions.size();
+    }
+    
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onInvoiceStatusChanged(InvoiceStatusChangedEvent event) {
+        if (subscriptions.isEmpty() || (!event.isListed() && !event.isDelisted())) {
+            return;
+        }
+        
+        MarketplaceStreamEvent payload = toStreamEvent(event.getInvoice(),
+                event.isListed() ? MarketplaceStreamEvent.Type.LISTED : MarketplaceStreamEvent.Type.DELISTED,
+                null);
+        publisher.execute(() -> broadcast(payload));
+    }
+    
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onFundingOfferChanged(FundingOfferChangedEvent event) {
+        if (subscriptions.isEmpty() || (!event.isActivated() && !event.isDeactivated())) {
+            return;
+        }
+        
+        offerChangedInvoices.add(event.getInvoiceId());
+        if (offerFlushScheduled.compareAndSet(false, true)) {
+            publisher.schedule(this::flushOfferChanges, offerCoalesceMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+    
+    // Keeps idle connections from being closed by proxies and detects clients that went away
+    @Scheduled(fixedDelayString = "${app.marketplace.stream.heartbeat-ms:15000}")
+    public void heartbeat() {
+        for (Subscription subscription : subscriptions.values()) {
+            if (subscription.buffer.isEmpty()) {
+                enqueue(subscription, SseEmitter.event().comment("heartbeat"));
+            }
+        }
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        publisher.shutdownNow();
+        writers.shutdownNow();
+        subscriptions.values().forEach(subscription -> subscription.emitter.complete());
+        subscriptions.clear();
+    }
+    
+    // Runs on the publisher thread: one query loads every invoice touched during the window
+    private void flushOfferChanges() {
+        offerFlushScheduled.set(false);
+        List<Long> invoiceIds = new ArrayList<>(offerChangedInvoices);
+        offerChangedInvoices.removeAll(invoiceIds);
+        if (invoiceIds.isEmpty()) {
+            return;
+        }
+        
+        try {
+            for (Invoice invoice : invoiceRepository.findAllById(invoiceIds)) {
+                // Bidding on an auction is sealed, so its offer activity is not broadcast
+                if (FinancingRequestStatus.OPEN.equals(invoice.getStatus()) && !invoice.isAuction()) {
+                    broadcast(toStreamEvent(invoice, MarketplaceStreamEvent.Type.OFFERS_CHANGED,
+                            (long) invoice.getOfferCount()));
+                }
+            }
+        } catch (RuntimeException e) {
+            log.warn("Failed to broadcast offer changes for {} invoices: {}", invoiceIds.size(), e.getMessage());
+        }
+    }
+    
+    private void broadcast(MarketplaceStreamEvent payload) {
+        String eventId = Long.toString(eventIds.incrementAndGet());
+        String eventName = payload.getType().name();
+        
+        for (Subscription subscription : subscriptions.values()) {
+            if (matches(subscription.filter, payload)) {
+                enqueue(subscription, SseEmitter.event().id(eventId).name(eventName).data(payload));
+            }
+        }
+    }
+    
+    private void enqueue(Subscription subscription, SseEmitter.SseEventBuilder event) {
+        // A full buffer drops its oldest event; the client resyncs from the list endpoint
+        while (!subscription.buffer.offer(event)) {
+            if (subscription.buffer.poll() != null) {
+                subscription.dropped.incrementAndGet();
+            }
+        }
+        
+        if (subscription.draining.compareAndSet(false, true)) {
+            writers.execute(() -> drain(subscription));
+        }
+    }
+    
+    private void drain(Subscription subscription) {
+        try {
+            SseEmitter.SseEventBuilder event;
+            while ((event = subscription.buffer.poll()) != null) {
+                subscription.emitter.send(event);
+            }
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Marketplace stream {} closed: {}", subscription.id, e.getMessage());
+            subscriptions.remove(subscription.id);
+            subscription.buffer.clear();
+            subscription.emitter.completeWithError(e);
+            return;
+        } finally {
+            subscription.draining.set(false);
+        }
+        
+        // Pick up anything enqueued between the last poll and releasing the flag
+        if (!subscription.buffer.isEmpty() && subscription.draining.compareAndSet(false, true)) {
+            writers.execute(() -> drain(subscription));
+        }
+    }
+    
+    private boolean matches(MarketplaceFilter filter, MarketplaceStreamEvent event) {
+        if (filter.getMinAmount() != null && event.getInvoiceAmount().compareTo(filter.getMinAmount()) < 0) {
+            return false;
+        }
+        if (filter.getMaxAmount() != null && event.getInvoiceAmount().compareTo(filter.getMaxAmount()) > 0) {
+            return false;
+        }
+        return filter.getBuyerGstin() == null || filter.getBuyerGstin().equalsIgnoreCase(event.getBuyerGstin());
+    }
+    
+    private MarketplaceStreamEvent toStreamEvent(Invoice invoice, MarketplaceStreamEvent.Type type, Long activeOffers) {
+        return MarketplaceStreamEvent.builder()
+                .type(type)
+                .invoiceId(invoice.getId().toString())
+                .invoiceNumber(invoice.getInvoiceNumber())
+                .buyerName(invoice.getBuyerName())
+                .buyerGstin(invoice.getBuyerGstin())
+                .invoiceAmount(invoice.getInvoiceAmount())
+                .requestedAmount(invoice.getRequestedAmount())
+                .expectedInterestRate(invoice.getExpectedInterestRate())
+                .currency(invoice.getCurrency())
+                .activeOffers(activeOffers)
+                .occurredAt(LocalDateTime.now())
+                .build();
+    }
+    
+    private static Thread daemon(Runnable runnable, String name) {
+        Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+    
+    private static class Subscription {
+        
+        private final long id;
+        private final Long userId;
+        private final MarketplaceFilter filter;
+        private final SseEmitter emitter;
+        private final BlockingQueue<SseEmitter.SseEventBuilder> buffer;
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicLong dropped = new AtomicLong();
+        
+        private Subscription(long id, Long userId, MarketplaceFilter filter, SseEmitter emitter, int bufferSize) {
+            this.id = id;
+            this.userId = userId;
+            this.filter = filter;
+            this.emitter = emitter;
+            this.buffer = new ArrayBlockingQueue<>(bufferSize);
+        }
+    }
+}
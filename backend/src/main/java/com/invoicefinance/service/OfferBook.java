@@ -0,0 +1,92 @@
+package com.invoicefinance.service;
+
+import com.invoicefinance.dto.FundingOfferResponse;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+// ACTIVE offers on one invoice, kept ordered by what they cost the borrower (cheapest first) so
+// the best N can be read off the head of the set without querying or sorting.
+public class OfferBook {
+    
+    private static final BigDecimal DAYS_PER_YEAR = BigDecimal.valueOf(365);
+    private static final BigDecimal HUNDRED = BigDecimal.valueOf(100);
+    
+    // Cheapest first; earlier offers win ties, then lower ids so the order is total
+    private static final Comparator<FundingOfferResponse> BY_BORROWER_COST = Comparator
+            .comparing(FundingOfferResponse::getEffectiveAnnualCost)
+            .thenComparing(FundingOfferResponse::getCreatedAt, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(offer -> Long.parseLong(offer.getId()));
+    
+    private final Long borrowerUserId;
+    private final LocalDateTime loadedAt = LocalDateTime.now();
+    private final NavigableSet<FundingOfferResponse> ranked = new ConcurrentSkipListSet<>(BY_BORROWER_COST);
+    private final Map<String, FundingOfferResponse> byId = new ConcurrentHashMap<>();
+    
+    public OfferBook(Long borrowerUserId) {
+        this.borrowerUserId = borrowerUserId;
+    }
+    
+    // Annualized cost in percent: the nominal rate plus the processing fee spread over the tenor
+    public static BigDecimal effectiveAnnualCost(BigDecimal interestRatePa, BigDecimal processingFee,
+                                                 BigDecimal offerAmount, Integer tenorDays) {
+        if (processingFee == null || processingFee.signum() == 0 || offerAmount == null
+                || offerAmount.signum() <= 0 || tenorDays == null || tenorDays <= 0) {
+            return interestRatePa.setScale(4, RoundingMode.HALF_UP);
+        }
+        
+        BigDecimal feeRate = processingFee
+                .multiply(DAYS_PER_YEAR)
+                .multiply(HUNDRED)
+                .divide(offerAmount.multiply(BigDecimal.valueOf(tenorDays)), 4, RoundingMode.HALF_UP);
+        return interestRatePa.add(feeRate).setScale(4, RoundingMode.HALF_UP);
+    }
+    
+    public Long getBorrowerUserId() {
+        return borrowerUserId;
+    }
+    
+    public LocalDateTime getLoadedAt() {
+        return loadedAt;
+    }
+    
+    public void add(FundingOfferResponse offer) {
+        remove(offer.getId());
+        byId.put(offer.getId(), offer);
+        ranked.add(offer);
+    }
+    
+    public void remove(String offerId) {
+        FundingOfferResponse previous = byId.remove(offerId);
+        if (previous != null) {
+            ranked.remove(previous);
+        }
+    }
+    
+    // Offers past validUntil are skipped until the expiry job retires them
+    public List<FundingOfferResponse> best(int n) {
+        LocalDateTime now = LocalDateTime.now();
+        List<FundingOfferResponse> best = new ArrayList<>(Math.min(n, byId.size()));
+        for (FundingOfferResponse offer : ranked) {
+            if (best.size() >= n) {
+                break;
+            }
+            if (offer.getValidUntil() == null || offer.getValidUntil().isAfter(now)) {
+                best.add(offer);
+            }
+        }
+        return best;
+    }
+    
+    public List<FundingOfferResponse> all() {
+        return best(Integer.MAX_VALUE);
+    }
+}
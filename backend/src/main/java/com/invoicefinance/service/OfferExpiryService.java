@@ -0,0 +1,151 @@
+package com.invoicefinance.service;
+
+import com.invoicefinance.event.FundingOfferChangedEvent;
+import com.invoicefinance.repository.FundingOfferRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Expires funding offers at their validUntil deadline. Deadlines up to a rolling horizon are held in
+// a hierarchical timing wheel (1s ticks: 60s, 60m, 24h, 30d); each tick expires whatever came due
+// with bulk UPDATEs guarded by status = ACTIVE, so a stale entry for an offer that was accepted or
+// withdrawn meanwhile is a no-op. A periodic set-based sweep catches anything the wheel never saw,
+// such as offers created on another node, and reads treat past-deadline offers as expired anyway.
+// The wheel ticks on its own thread so the other @Scheduled jobs cannot delay it, nor it them.
+@Service
+@Slf4j
+public class OfferExpiryService {
+    
+    private static final long TICK_MILLIS = 1000;
+    
+    private final FundingOfferRepository offerRepository;
+    private final OfferService offerService;
+    private final int batchSize;
+    private final long tickIntervalMillis;
+    private final ScheduledExecutorService ticker;
+    
+    // Guarded by this
+    private final TimingWheel wheel;
+    private LocalDateTime trackedUntil;
+    
+    public OfferExpiryService(
+            FundingOfferRepository offerRepository,
+            OfferService offerService,
+            @Value("${app.offers.expiry.batch-size:500}") int batchSize,
+            @Value("${app.offers.expiry.tick-ms:1000}") long tickIntervalMillis) {
+        this.offerRepository = offerRepository;
+        this.offerService = offerService;
+        this.batchSize = Math.max(1, batchSize);
+        this.tickIntervalMillis = Math.max(1, tickIntervalMillis);
+        this.ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "offer-expiry-tick");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.wheel = new TimingWheel(TICK_MILLIS, System.currentTimeMillis(), 60, 60, 24, 30);
+        this.trackedUntil = LocalDateTime.now();
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        sweep();
+        extendHorizon();
+        ticker.scheduleWithFixedDelay(this::tickSafely, tickIntervalMillis, tickIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        ticker.shutdownNow();
+    }
+    
+    public void tick() {
+        List<Long> due = new ArrayList<>();
+        synchronized (this) {
+            wheel.advance(System.currentTimeMillis(), due::add);
+        }
+        
+        LocalDateTime now = LocalDateTime.now();
+        int expired = 0;
+        for (int from = 0; from < due.size(); from += batchSize) {
+            expired += offerService.expireOffers(due.subList(from, Math.min(from + batchSize, due.size())), now);
+        }
+        if (expired > 0) {
+            log.info("Expired {} offers at their deadline", expired);
+        }
+    }
+    
+    @Scheduled(fixedDelayString = "${app.offers.expiry.sweep-interval-ms:600000}",
+               initialDelayString = "${app.offers.expiry.sweep-interval-ms:600000}")
+    public void sweep() {
+        int expired;
+        do {
+            expired = offerService.markExpiredOffers(batchSize);
+        } while (expired >= batchSize);
+    }
+    
+    // Loads the deadlines that have come within the wheel's horizon since the last extension
+    @Scheduled(fixedDelayString = "${app.offers.expiry.horizon-refresh-ms:3600000}",
+               initialDelayString = "${app.offers.expiry.horizon-refresh-ms:3600000}")
+    public void extendHorizon() {
+        LocalDateTime from;
+        LocalDateTime to;
+        synchronized (this) {
+            // Advance the tracked range first so offers created during the load are scheduled by their
+            // events; anything loaded twice only costs a no-op update
+            from = trackedUntil;
+            to = LocalDateTime.now().plusNanos(wheel.horizonMillis() * 1_000_000L);
+            trackedUntil = to;
+        }
+        
+        List<Object[]> deadlines = offerRepository.findActiveDeadlinesBetween(from, to);
+        long tracked;
+        synchronized (this) {
+            for (Object[] row : deadlines) {
+                wheel.schedule((Long) row[0], toMillis((LocalDateTime) row[1]));
+            }
+            tracked = wheel.size();
+        }
+        
+        log.info("Offer expiry horizon extended to {} with {} deadlines ({} tracked)", to, deadlines.size(), tracked);
+    }
+    
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onFundingOfferChanged(FundingOfferChangedEvent event) {
+        // Deactivated offers are left in the wheel; the guarded update skips them when they come due
+        if (!event.isActivated() || event.getValidUntil() == null) {
+            return;
+        }
+        synchronized (this) {
+            if (!event.getValidUntil().isAfter(trackedUntil)) {
+                wheel.schedule(event.getOfferId(), toMillis(event.getValidUntil()));
+            }
+        }
+    }
+    
+    // An exception escaping a fixed-delay task would cancel every later tick
+    private void tickSafely() {
+        try {
+            tick();
+        } catch (RuntimeException e) {
+            log.warn("Offer expiry tick failed", e);
+        }
+    }
+    
+    private static long toMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
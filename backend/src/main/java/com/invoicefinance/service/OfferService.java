@@ -1,29 +1,95 @@
 package com.invoicefinance.service;
 
+import com.invoicefinance.dto.BulkOfferResponse;
+import com.invoicefinance.dto.BulkOfferResult;
 import com.invoicefinance.dto.CreateFundingOfferForm;
 import com.invoicefinance.dto.FundingOfferResponse;
 import com.invoicefinance.entity.*;
+import com.invoicefinance.event.FundingOfferChangedEvent;
+import com.invoicefinance.event.InvoiceStatusChangedEvent;
 import com.invoicefinance.exception.BadRequestException;
 import com.invoicefinance.exception.ResourceNotFoundException;
+import com.invoicefinance.repository.FundingOfferBatchRepository;
 import com.invoicefinance.repository.FundingOfferRepository;
 import com.invoicefinance.repository.InvoiceRepository;
-import lombok.RequiredArgsConstructor;
+import com.invoicefinance.repository.UserRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class OfferService {
     
+    // Offers that count towards a lender's exposure to a buyer
+    public static final List<FundingOfferStatus> EXPOSURE_STATUSES =
+            List.of(FundingOfferStatus.ACTIVE, FundingOfferStatus.ACCEPTED);
+    
+    private static final int OFFER_GENERATION_STRIPES = 4096;
+    
     private final FundingOfferRepository offerRepository;
     private final InvoiceRepository invoiceRepository;
+    private final UserRepository userRepository;
     private final UserService userService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final FundingOfferBatchRepository offerBatchRepository;
+    private final Validator validator;
+    private final long offerBookTtlMillis;
+    
+    // Offer books of OPEN invoices, loaded on view. Offers created or retired here are applied in
+    // place. Changes committed on other nodes are never seen, so a book is reloaded once it is older
+    // than the TTL.
+    private final Map<Long, OfferBook> offerBooks = new ConcurrentHashMap<>();
+    
+    // Offer-change generations striped by invoice id, so activity on one invoice never keeps another's
+    // book from being cached. A load that raced with a change to its invoice (or a collision) is
+    // returned but not cached.
+    private final AtomicLongArray offerGenerations = new AtomicLongArray(OFFER_GENERATION_STRIPES);
+    
+    public OfferService(
+            FundingOfferRepository offerRepository,
+            InvoiceRepository invoiceRepository,
+            UserRepository userRepository,
+            UserService userService,
+            ApplicationEventPublisher eventPublisher,
+            FundingOfferBatchRepository offerBatchRepository,
+            Validator validator,
+            @Value("${app.offers.book-ttl-ms:30000}") long offerBookTtlMillis) {
+        this.offerRepository = offerRepository;
+        this.invoiceRepository = invoiceRepository;
+        this.userRepository = userRepository;
+        this.userService = userService;
+        this.eventPublisher = eventPublisher;
+        this.offerBatchRepository = offerBatchRepository;
+        this.validator = validator;
+        this.offerBookTtlMillis = Math.max(0, offerBookTtlMillis);
+    }
     
     @Transactional
     public FundingOfferResponse createOffer(CreateFundingOfferForm request) {
@@ -36,42 +102,195 @@ public class OfferService {
         Invoice invoice = invoiceRepository.findById(Long.parseLong(request.getFinancingRequestId()))
                 .orElseThrow(() -> new ResourceNotFoundException("Invoice not found"));
         
-        if (!FinancingRequestStatus.OPEN.equals(invoice.getStatus())) {
-            throw new BadRequestException("Can only make offers on open invoices");
+        // Check if lender already has an active offer for this invoice
+        String rejection = offerRejectionReason(invoice, request,
+                offerRepository.existsByInvoiceAndLenderUser(invoice, currentUser));
+        if (rejection != null) {
+            throw new BadRequestException(rejection);
         }
         
-        // Check if lender already has an active offer for this invoice
-        if (offerRepository.existsByInvoiceAndLenderUser(invoice, currentUser)) {
-            throw new BadRequestException("You already have an offer for this invoice");
+        FundingOffer offer = offerRepository.save(buildOffer(invoice, currentUser, request));
+        offerBatchRepository.recordNewOffers(List.of(offer));
+        FundingOfferResponse response = mapToOfferResponse(offer);
+        eventPublisher.publishEvent(new FundingOfferChangedEvent(
+                offer.getId(), invoice.getId(), currentUser.getId(), null, FundingOfferStatus.ACTIVE, response));
+        
+        log.info("Created funding offer with ID: {} for invoice: {} by lender: {}", 
+                offer.getId(), invoice.getId(), currentUser.getId());
+        
+        return response;
+    }
+    
+    @Transactional
+    public BulkOfferResponse createOffersBulk(List<CreateFundingOfferForm> requests) {
+        User currentUser = userService.getCurrentUser();
+        
+        if (!currentUser.isLender()) {
+            throw new BadRequestException("Only lenders can create funding offers");
         }
         
-        // Validate offer amount
-        if (request.getOfferAmount().compareTo(invoice.getMinAcceptAmount()) < 0) {
-            throw new BadRequestException("Offer amount must be at least the minimum accept amount");
+        return createOffers(currentUser, requests);
+    }
+    
+    // Creates a batch of offers for the given lender with one invoice load, one existing-offer check
+    // and one batched insert. Items are judged independently and reported by their position.
+    @Transactional
+    public BulkOfferResponse createOffers(User lender, List<CreateFundingOfferForm> requests) {
+        BulkOfferResult[] results = new BulkOfferResult[requests.size()];
+        Map<Integer, Long> invoiceIds = new HashMap<>();
+        
+        for (int i = 0; i < requests.size(); i++) {
+            CreateFundingOfferForm request = requests.get(i);
+            String error = request == null ? "Offer is required" : validationError(request);
+            if (error == null) {
+                try {
+                    invoiceIds.put(i, Long.parseLong(request.getFinancingRequestId().trim()));
+                } catch (NumberFormatException e) {
+                    error = "Invalid financing request ID";
+                }
+            }
+            if (error != null) {
+                results[i] = failure(i, error);
+            }
         }
         
-        if (request.getOfferAmount().compareTo(invoice.getRequestedAmount()) > 0) {
-            throw new BadRequestException("Offer amount cannot exceed requested amount");
+        Map<Long, Invoice> invoices = invoiceRepository.findAllById(new HashSet<>(invoiceIds.values())).stream()
+                .collect(Collectors.toMap(Invoice::getId, Function.identity()));
+        Set<Long> alreadyOffered = invoiceIds.isEmpty() ? new HashSet<>()
+                : new HashSet<>(offerRepository.findInvoiceIdsOfferedByLender(lender, invoiceIds.values()));
+        
+        List<FundingOffer> offers = new ArrayList<>();
+        List<Integer> offerIndexes = new ArrayList<>();
+        for (int i = 0; i < requests.size(); i++) {
+            if (results[i] != null) {
+                continue;
+            }
+            Invoice invoice = invoices.get(invoiceIds.get(i));
+            if (invoice == null) {
+                results[i] = failure(i, "Invoice not found");
+                continue;
+            }
+            
+            // A second offer on the same invoice within the batch counts as an existing offer
+            String rejection = offerRejectionReason(invoice, requests.get(i),
+                    alreadyOffered.contains(invoice.getId()));
+            if (rejection != null) {
+                results[i] = failure(i, rejection);
+                continue;
+            }
+            
+            alreadyOffered.add(invoice.getId());
+            offers.add(buildOffer(invoice, lender, requests.get(i)));
+            offerIndexes.add(i);
         }
         
-        FundingOffer offer = FundingOffer.builder()
-                .invoice(invoice)
-                .lenderUser(currentUser)
-                .offerAmount(request.getOfferAmount())
-                .interestRatePa(request.getInterestRatePa())
-                .processingFee(request.getProcessingFee())
-                .tenorDays(request.getTenorDays())
-                .validUntil(request.getValidUntil())
-                .notes(request.getNotes())
-                .status(FundingOfferStatus.ACTIVE)
-                .build();
+        offerBatchRepository.insertAll(offers);
+        offerBatchRepository.recordNewOffers(offers);
         
-        offer = offerRepository.save(offer);
+        for (int k = 0; k < offers.size(); k++) {
+            FundingOffer offer = offers.get(k);
+            FundingOfferResponse response = mapToOfferResponse(offer);
+            eventPublisher.publishEvent(new FundingOfferChangedEvent(
+                    offer.getId(), offer.getInvoice().getId(), lender.getId(), null, FundingOfferStatus.ACTIVE,
+                    response));
+            results[offerIndexes.get(k)] = BulkOfferResult.builder()
+                    .index(offerIndexes.get(k))
+                    .success(true)
+                    .offer(response)
+                    .build();
+        }
         
-        log.info("Created funding offer with ID: {} for invoice: {} by lender: {}", 
-                offer.getId(), invoice.getId(), currentUser.getId());
+        log.info("Created {} of {} bulk funding offers for lender: {}", offers.size(), requests.size(), lender.getId());
+        return toBulkResponse(results);
+    }
+    
+    // Places one offer for a lender who caps their exposure to the invoice's buyer, trimmed to what
+    // the cap leaves. The lender's row is locked before their exposure is summed, so concurrent bids
+    // by the same lender, on any node, run one after another and each sees the offers committed
+    // before it.
+    @Transactional
+    public BulkOfferResponse createOfferWithinExposure(User lender, CreateFundingOfferForm request,
+                                                       String buyerGstin, BigDecimal maxExposure) {
+        // First statement of the transaction, so the sum below reads after the lock is granted
+        userRepository.lockById(lender.getId());
         
-        return mapToOfferResponse(offer);
+        BigDecimal exposure = BigDecimal.ZERO;
+        for (Object[] row : offerRepository.sumOfferAmountsByLenderForBuyer(
+                buyerGstin, EXPOSURE_STATUSES, List.of(lender.getId()))) {
+            exposure = (BigDecimal) row[1];
+        }
+        BigDecimal remaining = maxExposure.subtract(exposure);
+        if (remaining.signum() <= 0) {
+            return toBulkResponse(new BulkOfferResult[] {failure(0, "Exposure limit for this buyer is reached")});
+        }
+        if (request.getOfferAmount().compareTo(remaining) > 0) {
+            request.setOfferAmount(remaining);
+        }
+        return createOffers(lender, List.of(request));
+    }
+    
+    @Transactional
+    public BulkOfferResponse withdrawOffersBulk(List<Long> offerIds) {
+        User currentUser = userService.getCurrentUser();
+        
+        Map<Long, FundingOffer> offers = offerRepository.findAllById(offerIds.stream()
+                        .filter(Objects::nonNull)
+                        .collect(Collectors.toSet())).stream()
+                .collect(Collectors.toMap(FundingOffer::getId, Function.identity()));
+        
+        BulkOfferResult[] results = new BulkOfferResult[offerIds.size()];
+        Map<Long, Integer> eligible = new LinkedHashMap<>();
+        for (int i = 0; i < offerIds.size(); i++) {
+            FundingOffer offer = offerIds.get(i) == null ? null : offers.get(offerIds.get(i));
+            if (offer == null) {
+                results[i] = failure(i, "Offer not found");
+            } else if (!offer.getLenderUser().getId().equals(currentUser.getId())) {
+                results[i] = failure(i, "You can only withdraw your own offers");
+            } else if (!FundingOfferStatus.ACTIVE.equals(offer.getStatus())) {
+                results[i] = failure(i, "Can only withdraw active offers");
+            } else if (eligible.putIfAbsent(offer.getId(), i) != null) {
+                results[i] = failure(i, "Offer appears more than once in the batch");
+            }
+        }
+        
+        // One guarded update; anything accepted or expired since it was read is left alone
+        Map<Long, FundingOffer> withdrawn = new HashMap<>();
+        if (!eligible.isEmpty()) {
+            offerRepository.withdrawActiveOffers(eligible.keySet(), currentUser.getId(), LocalDateTime.now());
+            Set<Long> withdrawnIds = new HashSet<>();
+            Set<Long> invoiceIds = new HashSet<>();
+            for (Object[] row : offerRepository.findOfferPartiesByIdInAndStatus(
+                    eligible.keySet(), FundingOfferStatus.WITHDRAWN)) {
+                withdrawnIds.add((Long) row[0]);
+                invoiceIds.add((Long) row[1]);
+            }
+            if (!invoiceIds.isEmpty()) {
+                invoiceRepository.refreshOfferStats(invoiceIds);
+            }
+            // The conditional update cleared the persistence context; reload the rows it changed
+            for (FundingOffer offer : offerRepository.findAllById(withdrawnIds)) {
+                withdrawn.put(offer.getId(), offer);
+            }
+        }
+        
+        eligible.forEach((offerId, index) -> {
+            FundingOffer offer = withdrawn.get(offerId);
+            if (offer == null) {
+                results[index] = failure(index, "Can only withdraw active offers");
+                return;
+            }
+            eventPublisher.publishEvent(new FundingOfferChangedEvent(
+                    offerId, offer.getInvoice().getId(), currentUser.getId(),
+                    FundingOfferStatus.ACTIVE, FundingOfferStatus.WITHDRAWN, null));
+            results[index] = BulkOfferResult.builder()
+                    .index(index)
+                    .success(true)
+                    .offer(mapToOfferResponse(offer))
+                    .build();
+        });
+        
+        log.info("Withdrawn {} of {} bulk offers by lender: {}", withdrawn.size(), offerIds.size(), currentUser.getId());
+        return toBulkResponse(results);
     }
     
     public List<FundingOfferResponse> getMyOffers() {
@@ -100,7 +319,10 @@ public class OfferService {
             if (!invoice.getBorrowerUser().getId().equals(currentUser.getId())) {
                 throw new BadRequestException("Access denied to view offers for this invoice");
             }
-            // Borrowers see ALL offers on their invoice
+            // Borrowers see ALL offers on their invoice, cheapest first
+            if (FinancingRequestStatus.OPEN.equals(invoice.getStatus())) {
+                return offerBook(invoice).all();
+            }
             List<FundingOffer> offers = offerRepository.findByInvoiceAndStatusOrderByCreatedAtDesc(
                     invoice, FundingOfferStatus.ACTIVE);
             return offers.stream()
@@ -130,6 +352,92 @@ public class OfferService {
         }
     }
     
+    public List<FundingOfferResponse> getBestOffers(Long invoiceId, int n) {
+        User currentUser = userService.getCurrentUser();
+        
+        OfferBook book = freshOfferBook(invoiceId);
+        if (book == null) {
+            Invoice invoice = invoiceRepository.findById(invoiceId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Invoice not found"));
+            if (!FinancingRequestStatus.OPEN.equals(invoice.getStatus())) {
+                throw new BadRequestException("Best offers are only available for open invoices");
+            }
+            book = offerBook(invoice);
+        }
+        
+        // Only the invoice owner and admins may compare the offers made on it
+        if (!currentUser.isAdmin() && !book.getBorrowerUserId().equals(currentUser.getId())) {
+            throw new BadRequestException("Access denied to view offers for this invoice");
+        }
+        
+        return book.best(n);
+    }
+    
+    // The generation is bumped before the book is touched, and the book is updated under its bin lock,
+    // so a concurrent load either sees the bump and is not cached or is cached before the update
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onFundingOfferChanged(FundingOfferChangedEvent event) {
+        if (event.isActivated()) {
+            offerGenerations.incrementAndGet(offerGenerationStripe(event.getInvoiceId()));
+            offerBooks.computeIfPresent(event.getInvoiceId(), (invoiceId, book) -> {
+                book.add(event.getOffer());
+                return book;
+            });
+        } else if (event.isDeactivated()) {
+            offerGenerations.incrementAndGet(offerGenerationStripe(event.getInvoiceId()));
+            offerBooks.computeIfPresent(event.getInvoiceId(), (invoiceId, book) -> {
+                book.remove(event.getOfferId().toString());
+                return book;
+            });
+        }
+    }
+    
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onInvoiceStatusChanged(InvoiceStatusChangedEvent event) {
+        if (event.isDelisted()) {
+            offerBooks.remove(event.getInvoice().getId());
+        }
+    }
+    
+    // Also drops books of invoices delisted on other nodes
+    @Scheduled(fixedDelayString = "${app.offers.book-sweep-interval-ms:60000}",
+               initialDelayString = "${app.offers.book-sweep-interval-ms:60000}")
+    public void evictExpiredOfferBooks() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(offerBookTtlMillis, ChronoUnit.MILLIS);
+        offerBooks.values().removeIf(book -> book.getLoadedAt().isBefore(cutoff));
+    }
+    
+    private OfferBook freshOfferBook(Long invoiceId) {
+        OfferBook book = offerBooks.get(invoiceId);
+        if (book == null || book.getLoadedAt().isBefore(LocalDateTime.now().minus(offerBookTtlMillis, ChronoUnit.MILLIS))) {
+            return null;
+        }
+        return book;
+    }
+    
+    // Loaded outside the map so no bin lock is held over the query
+    private OfferBook offerBook(Invoice invoice) {
+        OfferBook book = freshOfferBook(invoice.getId());
+        if (book != null) {
+            return book;
+        }
+        
+        int stripe = offerGenerationStripe(invoice.getId());
+        long generation = offerGenerations.get(stripe);
+        OfferBook loaded = new OfferBook(invoice.getBorrowerUser().getId());
+        for (FundingOffer offer : offerRepository.findByInvoiceAndStatusOrderByCreatedAtDesc(
+                invoice, FundingOfferStatus.ACTIVE)) {
+            loaded.add(mapToOfferResponse(offer));
+        }
+        offerBooks.compute(invoice.getId(),
+                (invoiceId, existing) -> offerGenerations.get(stripe) == generation ? loaded : existing);
+        return loaded;
+    }
+    
+    private static int offerGenerationStripe(Long invoiceId) {
+        return Long.hashCode(invoiceId) & (OFFER_GENERATION_STRIPES - 1);
+    }
+    
     @Transactional
     public FundingOfferResponse withdrawOffer(Long offerId) {
         FundingOffer offer = offerRepository.findById(offerId)
@@ -147,23 +455,115 @@ public class OfferService {
         
         offer.setStatus(FundingOfferStatus.WITHDRAWN);
         offer = offerRepository.save(offer);
+        invoiceRepository.refreshOfferStats(List.of(offer.getInvoice().getId()));
+        eventPublisher.publishEvent(new FundingOfferChangedEvent(
+                offer.getId(), offer.getInvoice().getId(), currentUser.getId(),
+                FundingOfferStatus.ACTIVE, FundingOfferStatus.WITHDRAWN, null));
         
         log.info("Withdrawn offer with ID: {} by lender: {}", offerId, currentUser.getId());
         return mapToOfferResponse(offer);
     }
     
+    // Catch-up sweep for past-deadline offers the expiry engine is not tracking, one batch per call
     @Transactional
-    public void markExpiredOffers() {
-        List<FundingOffer> expiredOffers = offerRepository.findExpiredOffers(LocalDateTime.now());
+    public int markExpiredOffers(int batchSize) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> dueOfferIds = offerRepository.findExpiredOfferIds(now, PageRequest.of(0, batchSize));
         
-        for (FundingOffer offer : expiredOffers) {
-            offer.setStatus(FundingOfferStatus.EXPIRED);
-            offerRepository.save(offer);
+        int expired = expireOffers(dueOfferIds, now);
+        if (expired > 0) {
+            log.info("Marked {} offers as expired", expired);
+        }
+        return expired;
+    }
+    
+    // Expires whichever of the given offers are still ACTIVE and past their deadline, in one statement
+    @Transactional
+    public int expireOffers(Collection<Long> offerIds, LocalDateTime now) {
+        if (offerIds.isEmpty()) {
+            return 0;
         }
         
-        if (!expiredOffers.isEmpty()) {
-            log.info("Marked {} offers as expired", expiredOffers.size());
+        int expired = offerRepository.expireDueOffers(offerIds, now);
+        if (expired > 0) {
+            Set<Long> invoiceIds = new HashSet<>();
+            for (Object[] row : offerRepository.findOfferPartiesByIdInAndStatus(offerIds, FundingOfferStatus.EXPIRED)) {
+                invoiceIds.add((Long) row[1]);
+                eventPublisher.publishEvent(new FundingOfferChangedEvent(
+                        (Long) row[0], (Long) row[1], (Long) row[2],
+                        FundingOfferStatus.ACTIVE, FundingOfferStatus.EXPIRED, null));
+            }
+            invoiceRepository.refreshOfferStats(invoiceIds);
         }
+        return expired;
+    }
+    
+    private FundingOffer buildOffer(Invoice invoice, User lender, CreateFundingOfferForm request) {
+        return FundingOffer.builder()
+                .invoice(invoice)
+                .lenderUser(lender)
+                .offerAmount(request.getOfferAmount())
+                .interestRatePa(request.getInterestRatePa())
+                .processingFee(request.getProcessingFee())
+                .tenorDays(request.getTenorDays())
+                .validUntil(request.getValidUntil())
+                .notes(request.getNotes())
+                .status(FundingOfferStatus.ACTIVE)
+                .build();
+    }
+    
+    // Business rules shared by single and bulk submission; null when the offer is acceptable
+    private String offerRejectionReason(Invoice invoice, CreateFundingOfferForm request, boolean alreadyOffered) {
+        if (!FinancingRequestStatus.OPEN.equals(invoice.getStatus())) {
+            return "Can only make offers on open invoices";
+        }
+        if (invoice.isAuction()) {
+            if (!invoice.getAuctionEndsAt().isAfter(LocalDateTime.now())) {
+                return "Auction has closed";
+            }
+            // The clearing engine can only accept offers that are still valid when it runs
+            if (!request.getValidUntil().isAfter(invoice.getAuctionEndsAt())) {
+                return "Offers on an auction must remain valid after it closes";
+            }
+        }
+        BigDecimal offerAmount = request.getOfferAmount();
+        if (alreadyOffered) {
+            return "You already have an offer for this invoice";
+        }
+        // A syndicated listing reaches its minimum across several offers, so smaller tickets are fine
+        if (!invoice.isSyndicated() && offerAmount.compareTo(invoice.getMinAcceptAmount()) < 0) {
+            return "Offer amount must be at least the minimum accept amount";
+        }
+        if (offerAmount.compareTo(invoice.getRequestedAmount()) > 0) {
+            return "Offer amount cannot exceed requested amount";
+        }
+        return null;
+    }
+    
+    private String validationError(CreateFundingOfferForm request) {
+        return validator.validate(request).stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .findFirst()
+                .orElse(null);
+    }
+    
+    private BulkOfferResult failure(int index, String error) {
+        return BulkOfferResult.builder()
+                .index(index)
+                .success(false)
+                .error(error)
+                .build();
+    }
+    
+    private BulkOfferResponse toBulkResponse(BulkOfferResult[] results) {
+        int succeeded = (int) Arrays.stream(results).filter(BulkOfferResult::isSuccess).count();
+        return BulkOfferResponse.builder()
+                .requested(results.length)
+                .succeeded(succeeded)
+                .failed(results.length - succeeded)
+                .results(Arrays.asList(results))
+                .build();
     }
     
     private FundingOfferResponse mapToOfferResponse(FundingOffer offer) {
@@ -175,9 +575,11 @@ public class OfferService {
                 .interestRatePa(offer.getInterestRatePa())
                 .processingFee(offer.getProcessingFee())
                 .tenorDays(offer.getTenorDays())
+                .effectiveAnnualCost(OfferBook.effectiveAnnualCost(offer.getInterestRatePa(),
+                        offer.getProcessingFee(), offer.getOfferAmount(), offer.getTenorDays()))
                 .validUntil(offer.getValidUntil())
                 .notes(offer.getNotes())
-                .status(offer.getStatus())
+                .status(offer.effectiveStatus())
                 .createdAt(offer.getCreatedAt())
                 .updatedAt(offer.getUpdatedAt())
                 .build();
@@ -0,0 +1,391 @@
+package com.invoicefinance.service;
+
+import com.invoicefinance.entity.FinancingRequestStatus;
+import com.invoicefinance.entity.Invoice;
+import com.invoicefinance.event.InvoiceStatusChangedEvent;
+import com.invoicefinance.repository.InvoiceRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Node-local, column-oriented copy of the OPEN marketplace. Each invoice occupies one slot across
+// parallel primitive arrays so range/equality filters are a tight scan with no per-row objects.
+// Kept current from committed InvoiceStatusChangedEvents and rebuilt from the database at startup.
+// Events only come from this node, so the index is also rebuilt periodically to pick up listings and
+// delistings committed elsewhere; that interval bounds how stale another node's changes can be here.
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class OpenInvoiceIndex {
+    
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int NO_BUYER = -1;
+    
+    private final InvoiceRepository invoiceRepository;
+    
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    
+    private long[] invoiceIds = new long[INITIAL_CAPACITY];
+    private long[] createdAtMicros = new long[INITIAL_CAPACITY];
+    private long[] amountMinor = new long[INITIAL_CAPACITY];
+    private int[] rateBasisPoints = new int[INITIAL_CAPACITY];
+    private int[] tenorDays = new int[INITIAL_CAPACITY];
+    private int[] buyerIds = new int[INITIAL_CAPACITY];
+    private int size;
+    
+    private final Map<Long, Integer> slotByInvoiceId = new HashMap<>();
+    private final Map<String, Integer> buyerIdByGstin = new HashMap<>();
+    
+    // Changes that arrive while a rebuild is loading from the database; replayed on top of it
+    private Map<Long, Listing> pendingChanges;
+    private volatile boolean ready;
+    
+    public record Page(List<Long> invoiceIds, boolean hasMore, int totalMatches) {
+    }
+    
+    // The columns the index keeps, from either a committed invoice or a projected row
+    private record Listing(Long id, LocalDateTime createdAt, BigDecimal invoiceAmount,
+                           BigDecimal expectedInterestRate, long tenorDays, String buyerGstin) {
+        
+        static Listing of(Invoice invoice) {
+            return new Listing(invoice.getId(), invoice.getCreatedAt(), invoice.getInvoiceAmount(),
+                    invoice.getExpectedInterestRate(), invoice.getTenorDays(), invoice.getBuyerGstin());
+        }
+        
+        // Row of InvoiceRepository.findIndexRowsByStatus
+        static Listing of(Object[] row) {
+            return new Listing((Long) row[0], (LocalDateTime) row[1], (BigDecimal) row[2], (BigDecimal) row[3],
+                    ChronoUnit.DAYS.between((LocalDate) row[4], (LocalDate) row[5]), (String) row[6]);
+        }
+    }
+    
+    public boolean isReady() {
+        return ready;
+    }
+    
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    // Returns up to limit invoice ids after the cursor, newest first, plus the total number of
+    // matches ignoring the cursor. candidateIds (e.g. full-text hits) restricts the scan when not null.
+    public Page query(BigDecimal minAmount, BigDecimal maxAmount, String buyerGstin,
+                      BigDecimal minRate, Integer maxTenorDays, Set<Long> candidateIds,
+                      MarketplaceCursor after, int limit) {
+        long min = minAmount != null ? toMinorUnits(minAmount, RoundingMode.CEILING) : Long.MIN_VALUE;
+        long max = maxAmount != null ? toMinorUnits(maxAmount, RoundingMode.FLOOR) : Long.MAX_VALUE;
+        int minRateBp = minRate != null
+                ? minRate.movePointRight(2).setScale(0, RoundingMode.CEILING).intValue()
+                : Integer.MIN_VALUE;
+        int maxTenor = maxTenorDays != null ? maxTenorDays : Integer.MAX_VALUE;
+        boolean hasCursor = after != null;
+        long cursorMicros = hasCursor ? toMicros(after.getCreatedAt()) : 0;
+        long cursorId = hasCursor ? after.getId() : 0;
+        // Sorted once so the scan probes it with a binary search instead of boxing every id
+        long[] candidates = candidateIds != null
+                ? candidateIds.stream().mapToLong(Long::longValue).sorted().toArray()
+                : null;
+        
+        lock.readLock().lock();
+        try {
+            int buyerFilter = NO_BUYER;
+            if (buyerGstin != null) {
+                Integer buyerId = buyerIdByGstin.get(buyerGstin);
+                if (buyerId == null) {
+                    return new Page(List.of(), false, 0);
+                }
+                buyerFilter = buyerId;
+            }
+            
+            // Min-heap of slots on recency keeps the newest limit + 1 rows seen so far
+            int capacity = limit + 1;
+            int[] newest = new int[Math.min(capacity, size)];
+            int heapSize = 0;
+            int matches = 0;
+            
+            for (int slot = 0; slot < size; slot++) {
+                long amount = amountMinor[slot];
+                if (amount < min || amount > max) {
+                    continue;
+                }
+                if (rateBasisPoints[slot] < minRateBp || tenorDays[slot] > maxTenor) {
+                    continue;
+                }
+                if (buyerFilter != NO_BUYER && buyerIds[slot] != buyerFilter) {
+                    continue;
+                }
+                if (candidates != null && Arrays.binarySearch(candidates, invoiceIds[slot]) < 0) {
+                    continue;
+                }
+                matches++;
+                
+                if (hasCursor && !isBefore(slot, cursorMicros, cursorId)) {
+                    continue;
+                }
+                if (heapSize < capacity) {
+                    newest[heapSize] = slot;
+                    siftUp(newest, heapSize++);
+                } else if (compareOldestFirst(slot, newest[0]) > 0) {
+                    newest[0] = slot;
+                    siftDown(newest, heapSize, 0);
+                }
+            }
+            
+            boolean hasMore = heapSize > limit;
+            if (hasMore) {
+                heapSize = pollOldest(newest, heapSize);
+            }
+            
+            Long[] ordered = new Long[heapSize];
+            for (int i = ordered.length - 1; i >= 0; i--) {
+                ordered[i] = invoiceIds[newest[0]];
+                heapSize = pollOldest(newest, heapSize);
+            }
+            return new Page(Arrays.asList(ordered), hasMore, matches);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onInvoiceStatusChanged(InvoiceStatusChangedEvent event) {
+        if (event.isListed()) {
+            apply(event.getInvoice().getId(), Listing.of(event.getInvoice()));
+        } else if (event.isDelisted()) {
+            apply(event.getInvoice().getId(), null);
+        }
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        rebuild();
+    }
+    
+    @Scheduled(fixedDelayString = "${app.marketplace.open-index.rebuild-interval-ms:60000}",
+               initialDelayString = "${app.marketplace.open-index.rebuild-interval-ms:60000}")
+    public void reconcile() {
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            log.warn("Open invoice index rebuild failed: {}", e.getMessage());
+        }
+    }
+    
+    // Queries keep being served from the current contents until the fresh load is swapped in
+    public synchronized void rebuild() {
+        lock.writeLock().lock();
+        try {
+            pendingChanges = new LinkedHashMap<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        
+        List<Object[]> openRows;
+        try {
+            openRows = invoiceRepository.findIndexRowsByStatus(FinancingRequestStatus.OPEN);
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                pendingChanges = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+        
+        lock.writeLock().lock();
+        try {
+            clear(Math.max(INITIAL_CAPACITY, openRows.size() * 2));
+            for (Object[] row : openRows) {
+                put(Listing.of(row));
+            }
+            for (Map.Entry<Long, Listing> change : pendingChanges.entrySet()) {
+                if (change.getValue() != null) {
+                    put(change.getValue());
+                } else {
+                    remove(change.getKey());
+                }
+            }
+            pendingChanges = null;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        
+        log.info("Open invoice index rebuilt with {} invoices", openRows.size());
+    }
+    
+    private void apply(Long invoiceId, Listing listing) {
+        lock.writeLock().lock();
+        try {
+            if (pendingChanges != null) {
+                pendingChanges.put(invoiceId, listing);
+            }
+            if (listing != null) {
+                put(listing);
+            } else {
+                remove(invoiceId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    private void put(Listing listing) {
+        Integer existing = slotByInvoiceId.get(listing.id());
+        int slot;
+        if (existing != null) {
+            slot = existing;
+        } else {
+            ensureCapacity(size + 1);
+            slot = size++;
+            slotByInvoiceId.put(listing.id(), slot);
+        }
+        
+        invoiceIds[slot] = listing.id();
+        createdAtMicros[slot] = toMicros(listing.createdAt());
+        amountMinor[slot] = toMinorUnits(listing.invoiceAmount(), RoundingMode.HALF_UP);
+        rateBasisPoints[slot] = listing.expectedInterestRate().movePointRight(2).intValue();
+        tenorDays[slot] = (int) listing.tenorDays();
+        buyerIds[slot] = internBuyer(listing.buyerGstin());
+    }
+    
+    private void remove(Long invoiceId) {
+        Integer slot = slotByInvoiceId.remove(invoiceId);
+        if (slot == null) {
+            return;
+        }
+        
+        // Move the last slot into the hole so the live rows stay contiguous
+        int last = --size;
+        if (slot != last) {
+            invoiceIds[slot] = invoiceIds[last];
+            createdAtMicros[slot] = createdAtMicros[last];
+            amountMinor[slot] = amountMinor[last];
+            rateBasisPoints[slot] = rateBasisPoints[last];
+            tenorDays[slot] = tenorDays[last];
+            buyerIds[slot] = buyerIds[last];
+            slotByInvoiceId.put(invoiceIds[slot], slot);
+        }
+    }
+    
+    private int internBuyer(String buyerGstin) {
+        if (buyerGstin == null || buyerGstin.isBlank()) {
+            return NO_BUYER;
+        }
+        return buyerIdByGstin.computeIfAbsent(buyerGstin, gstin -> buyerIdByGstin.size());
+    }
+    
+    private void clear(int capacity) {
+        invoiceIds = new long[capacity];
+        createdAtMicros = new long[capacity];
+        amountMinor = new long[capacity];
+        rateBasisPoints = new int[capacity];
+        tenorDays = new int[capacity];
+        buyerIds = new int[capacity];
+        size = 0;
+        slotByInvoiceId.clear();
+        // Buyer ids are re-interned from the live rows, so buyers with no open listings drop out
+        buyerIdByGstin.clear();
+    }
+    
+    private void ensureCapacity(int required) {
+        if (required <= invoiceIds.length) {
+            return;
+        }
+        int capacity = Math.max(required, invoiceIds.length * 2);
+        invoiceIds = Arrays.copyOf(invoiceIds, capacity);
+        createdAtMicros = Arrays.copyOf(createdAtMicros, capacity);
+        amountMinor = Arrays.copyOf(amountMinor, capacity);
+        rateBasisPoints = Arrays.copyOf(rateBasisPoints, capacity);
+        tenorDays = Arrays.copyOf(tenorDays, capacity);
+        buyerIds = Arrays.copyOf(buyerIds, capacity);
+    }
+    
+    private int compareOldestFirst(int a, int b) {
+        int byCreatedAt = Long.compare(createdAtMicros[a], createdAtMicros[b]);
+        return byCreatedAt != 0 ? byCreatedAt : Long.compare(invoiceIds[a], invoiceIds[b]);
+    }
+    
+    // Removes the oldest slot from the heap and returns the new heap size
+    private int pollOldest(int[] heap, int heapSize) {
+        heap[0] = heap[--heapSize];
+        siftDown(heap, heapSize, 0);
+        return heapSize;
+    }
+    
+    private void siftUp(int[] heap, int index) {
+        int slot = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (compareOldestFirst(slot, heap[parent]) >= 0) {
+                break;
+            }
+            heap[index] = heap[parent];
+            index = parent;
+        }
+        heap[index] = slot;
+    }
+    
+    private void siftDown(int[] heap, int heapSize, int index) {
+        int slot = heap[index];
+        int half = heapSize >>> 1;
+        while (index < half) {
+            int child = 2 * index + 1;
+            if (child + 1 < heapSize && compareOldestFirst(heap[child + 1], heap[child]) < 0) {
+                child++;
+            }
+            if (compareOldestFirst(slot, heap[child]) <= 0) {
+                break;
+            }
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = slot;
+    }
+    
+    // True when the slot sorts after the cursor in (createdAt DESC, id DESC) order
+    private boolean isBefore(int slot, long cursorMicros, long cursorId) {
+        long createdAt = createdAtMicros[slot];
+        return createdAt < cursorMicros || (createdAt == cursorMicros && invoiceIds[slot] < cursorId);
+    }
+    
+    private static long toMicros(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + dateTime.getNano() / 1_000;
+    }
+    
+    private static long toMinorUnits(BigDecimal amount, RoundingMode roundingMode) {
+        BigDecimal minor = amount.movePointRight(2).setScale(0, roundingMode);
+        if (minor.compareTo(BigDecimal.valueOf(Long.MAX_VALUE)) >= 0) {
+            return Long.MAX_VALUE;
+        }
+        if (minor.compareTo(BigDecimal.valueOf(Long.MIN_VALUE)) <= 0) {
+            return Long.MIN_VALUE;
+        }
+        return minor.longValue();
+    }
+}
@@ -0,0 +1,125 @@
+package com.invoicefinance.service;
+
+import com.amazonaws.HttpMethod;
+import com.invoicefinance.dto.CacheStatsResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+// Reuses presigned S3 URLs per (s3Key, method) while they still have enough validity left
+// for the client to use them. When full, entries closest to expiry are evicted first.
+@Component
+@Slf4j
+public class PresignedUrlCache {
+    
+    private final int maxEntries;
+    private final long minRemainingMillis;
+    private final Map<CacheKey, CachedUrl> entries = new ConcurrentHashMap<>();
+    
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+    
+    public PresignedUrlCache(
+            @Value("${app.s3.presigned-url-cache.max-entries:10000}") int maxEntries,
+            @Value("${app.s3.presigned-url-cache.min-remaining-seconds:900}") long minRemainingSeconds) {
+        this.maxEntries = maxEntries;
+        this.minRemainingMillis = minRemainingSeconds * 1000;
+    }
+    
+    public String get(String s3Key, HttpMethod method, long ttlMillis, Function<Date, URL> signer) {
+        CacheKey key = new CacheKey(s3Key, method);
+        long now = System.currentTimeMillis();
+        
+        CachedUrl cached = entries.get(key);
+        if (cached != null && cached.expiresAt() - now >= minRemainingMillis) {
+            hits.increment();
+            return cached.url();
+        }
+        
+        misses.increment();
+        long expiresAt = now + ttlMillis;
+        String url = signer.apply(new Date(expiresAt)).toString();
+        entries.put(key, new CachedUrl(url, expiresAt));
+        
+        if (entries.size() > maxEntries) {
+            evict(now);
+        }
+        return url;
+    }
+    
+    public void invalidate(String s3Key) {
+        for (HttpMethod method : HttpMethod.values()) {
+            if (entries.remove(new CacheKey(s3Key, method)) != null) {
+                invalidations.increment();
+            }
+        }
+    }
+    
+    public CacheStatsResponse getStats() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long lookups = hitCount + missCount;
+        
+        return CacheStatsResponse.builder()
+                .name("presigned-urls")
+                .size(entries.size())
+                .maxEntries(maxEntries)
+                .hits(hitCount)
+                .misses(missCount)
+                .hitRate(lookups == 0 ? 0.0 : (double) hitCount / lookups)
+                .evictions(evictions.sum())
+                .invalidations(invalidations.sum())
+                .build();
+    }
+    
+    private synchronized void evict(long now) {
+        if (entries.size() <= maxEntries) {
+            return;
+        }
+        
+        // URLs that can no longer be handed out go first
+        Iterator<Map.Entry<CacheKey, CachedUrl>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().getValue().expiresAt() - now < minRemainingMillis) {
+                iterator.remove();
+                evictions.increment();
+            }
+        }
+        
+        // Then the shortest remaining lifetimes, trimming 10% below the cap so we do not
+        // sort again on the very next miss
+        int excess = entries.size() - maxEntries;
+        if (excess > 0) {
+            List<Map.Entry<CacheKey, CachedUrl>> byExpiry = new ArrayList<>(entries.entrySet());
+            byExpiry.sort(Comparator.comparingLong(entry -> entry.getValue().expiresAt()));
+            
+            int toRemove = Math.min(byExpiry.size(), excess + maxEntries / 10);
+            for (int i = 0; i < toRemove; i++) {
+                if (entries.remove(byExpiry.get(i).getKey()) != null) {
+                    evictions.increment();
+                }
+            }
+        }
+        
+        log.debug("Presigned URL cache evicted down to {} entries", entries.size());
+    }
+    
+    private record CacheKey(String s3Key, HttpMethod method) {
+    }
+    
+    private record CachedUrl(String url, long expiresAt) {
+    }
+}
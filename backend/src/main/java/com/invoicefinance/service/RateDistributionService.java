@@ -0,0 +1,184 @@
+package com.invoicefinance.service;
+
+import com.invoicefinance.dto.RateBandResponse;
+import com.invoicefinance.repository.FundingOfferRepository;
+import com.invoicefinance.repository.RateSketchCountRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Percentile bands of offered interest rates by tenor bucket, amount bucket and buyer. Every offer is
+// counted in the RateSketch of its exact bucket and of each roll-up that leaves dimensions open ("*"),
+// so any combination is answered by a single lookup. The counts are kept in rate_sketch_counts and
+// shared by every node: a periodic sampler claims a batch of offers not yet counted, whichever node
+// created them and however late they committed, and adds their counts there; every node polls the
+// rows changed since its last look into its in-memory sketches. Polls re-read a grace window because
+// a transaction can commit a row stamped earlier than one already seen; counts are applied as
+// absolute values, so reading a row twice is harmless.
+@Service
+@Slf4j
+public class RateDistributionService {
+    
+    private static final String ANY = "*";
+    
+    private static final int[] TENOR_BOUNDS = {30, 60, 90, 180};
+    private static final long[] AMOUNT_BOUNDS = {100_000L, 500_000L, 2_500_000L, 10_000_000L};
+    
+    private final FundingOfferRepository offerRepository;
+    private final RateSketchCountRepository countRepository;
+    private final int sampleBatchSize;
+    private final long changeGraceSeconds;
+    
+    private final Map<String, RateSketch> sketches = new ConcurrentHashMap<>();
+    
+    // Guarded by this; null until restored
+    private LocalDateTime pollSince;
+    
+    public RateDistributionService(
+            FundingOfferRepository offerRepository,
+            RateSketchCountRepository countRepository,
+            @Value("${app.analytics.rates.sample-batch-size:1000}") int sampleBatchSize,
+            @Value("${app.analytics.rates.change-grace-seconds:60}") long changeGraceSeconds) {
+        this.offerRepository = offerRepository;
+        this.countRepository = countRepository;
+        this.sampleBatchSize = Math.max(1, sampleBatchSize);
+        this.changeGraceSeconds = Math.max(1, changeGraceSeconds);
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void restore() {
+        LocalDateTime now = countRepository.currentTime();
+        countRepository.findAll().forEach(this::apply);
+        pollSince = now.minusSeconds(changeGraceSeconds);
+        log.info("Rate distributions restored: {} buckets", sketches.size());
+    }
+    
+    // One transaction, so the claimed offers stay locked until their counts are added and a failure
+    // leaves them to be claimed again
+    @Scheduled(fixedDelayString = "${app.analytics.rates.sample-ms:1000}")
+    @Transactional
+    public void sampleNewOffers() {
+        List<Object[]> rows = offerRepository.lockUnsampledRateSamples(sampleBatchSize);
+        if (rows.isEmpty()) {
+            return;
+        }
+        
+        // Sorted, so concurrent samplers update shared rows in the same order
+        Map<String, Map<Integer, Long>> deltas = new TreeMap<>();
+        List<Long> offerIds = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            offerIds.add(((Number) row[0]).longValue());
+            int basisPoints = RateSketch.basisPoints((BigDecimal) row[1]);
+            for (String key : bucketKeys(row)) {
+                deltas.computeIfAbsent(key, k -> new TreeMap<>()).merge(basisPoints, 1L, Long::sum);
+            }
+        }
+        
+        List<RateSketchCountRepository.Count> counts = new ArrayList<>();
+        deltas.forEach((key, byRate) -> byRate.forEach((basisPoints, count) ->
+                counts.add(new RateSketchCountRepository.Count(key, basisPoints, count))));
+        offerRepository.markRateSampled(offerIds);
+        countRepository.addAll(counts);
+        
+        log.debug("Sampled {} offers into {} rate distribution counts", offerIds.size(), counts.size());
+    }
+    
+    @Scheduled(fixedDelayString = "${app.analytics.rates.poll-ms:2000}",
+               initialDelayString = "${app.analytics.rates.poll-ms:2000}")
+    public synchronized void pollCounts() {
+        if (pollSince == null) {
+            return;
+        }
+        try {
+            LocalDateTime now = countRepository.currentTime();
+            countRepository.findChangedSince(pollSince).forEach(this::apply);
+            pollSince = now.minusSeconds(changeGraceSeconds);
+        } catch (Exception e) {
+            log.warn("Failed to poll rate distribution counts: {}", e.getMessage());
+        }
+    }
+    
+    public RateBandResponse getRateBand(Integer tenorDays, BigDecimal amount, String buyerGstin) {
+        String tenorBucket = tenorDays != null ? tenorBucket(tenorDays) : ANY;
+        String amountBucket = amount != null ? amountBucket(amount) : ANY;
+        String buyer = normalizeGstin(buyerGstin);
+        
+        RateSketch sketch = sketches.get(key(tenorBucket, amountBucket, buyer));
+        BigDecimal[] bands = sketch != null ? sketch.quantiles(0.1, 0.5, 0.9) : new BigDecimal[3];
+        
+        return RateBandResponse.builder()
+                .tenorBucket(ANY.equals(tenorBucket) ? null : tenorBucket)
+                .amountBucket(ANY.equals(amountBucket) ? null : amountBucket)
+                .buyerGstin(ANY.equals(buyer) ? null : buyer)
+                .sampleCount(sketch != null ? sketch.count() : 0)
+                .p10(bands[0])
+                .p50(bands[1])
+                .p90(bands[2])
+                .build();
+    }
+    
+    // The exact bucket of a row of [id, interestRatePa, offerAmount, tenorDays, buyerGstin] and its roll-ups
+    private static List<String> bucketKeys(Object[] row) {
+        String tenor = tenorBucket(((Number) row[3]).intValue());
+        String amount = amountBucket((BigDecimal) row[2]);
+        String buyer = normalizeGstin((String) row[4]);
+        
+        List<String> keys = new ArrayList<>(8);
+        for (String t : new String[]{tenor, ANY}) {
+            for (String a : new String[]{amount, ANY}) {
+                for (String b : ANY.equals(buyer) ? new String[]{ANY} : new String[]{buyer, ANY}) {
+                    keys.add(key(t, a, b));
+                }
+            }
+        }
+        return keys;
+    }
+    
+    private void apply(RateSketchCountRepository.Count count) {
+        sketches.computeIfAbsent(count.bucketKey(), key -> new RateSketch())
+                .set(count.basisPoints(), count.sampleCount());
+    }
+    
+    private static String key(String tenorBucket, String amountBucket, String buyer) {
+        return tenorBucket + "|" + amountBucket + "|" + buyer;
+    }
+    
+    private static String tenorBucket(int tenorDays) {
+        int lower = 0;
+        for (int bound : TENOR_BOUNDS) {
+            if (tenorDays <= bound) {
+                return lower + "-" + bound;
+            }
+            lower = bound + 1;
+        }
+        return lower + "+";
+    }
+    
+    private static String amountBucket(BigDecimal amount) {
+        long lower = 0;
+        for (long bound : AMOUNT_BOUNDS) {
+            if (amount.compareTo(BigDecimal.valueOf(bound)) < 0) {
+                return lower + "-" + bound;
+            }
+            lower = bound;
+        }
+        return lower + "+";
+    }
+    
+    private static String normalizeGstin(String gstin) {
+        return gstin == null || gstin.isBlank() ? ANY : gstin.trim().toUpperCase(Locale.ROOT);
+    }
+}
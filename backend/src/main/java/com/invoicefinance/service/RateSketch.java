@@ -0,0 +1,49 @@
+package com.invoicefinance.service;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Distribution of interest rates. Rates are stored to two decimals, so counting samples per basis
+// point is exact and still small: a bucket holds one counter per distinct rate ever offered,
+// typically a few hundred. Quantiles walk those counters once. Thread-safe.
+public class RateSketch {
+    
+    private final TreeMap<Integer, Long> counts = new TreeMap<>();
+    private long total;
+    
+    public static int basisPoints(BigDecimal rate) {
+        return rate.movePointRight(2).intValue();
+    }
+    
+    // Replaces the count of one rate, e.g. with the shared count read back from the database
+    public synchronized void set(int basisPoints, long count) {
+        Long previous = count > 0 ? counts.put(basisPoints, count) : counts.remove(basisPoints);
+        total += Math.max(0, count) - (previous != null ? previous : 0);
+    }
+    
+    public synchronized long count() {
+        return total;
+    }
+    
+    // Nearest-rank quantiles for ascending qs, or nulls when the sketch is empty
+    public synchronized BigDecimal[] quantiles(double... qs) {
+        BigDecimal[] result = new BigDecimal[qs.length];
+        if (total == 0) {
+            return result;
+        }
+        
+        int next = 0;
+        long seen = 0;
+        for (Map.Entry<Integer, Long> entry : counts.entrySet()) {
+            seen += entry.getValue();
+            while (next < qs.length && seen >= Math.max(1, (long) Math.ceil(qs[next] * total))) {
+                result[next++] = BigDecimal.valueOf(entry.getKey(), 2);
+            }
+            if (next == qs.length) {
+                break;
+            }
+        }
+        return result;
+    }
+}
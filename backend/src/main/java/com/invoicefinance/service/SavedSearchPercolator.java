@@ -0,0 +1,233 @@
+package com.invoicefinance.service;
+
+import com.invoicefinance.dto.SavedSearchMatch;
+import com.invoicefinance.entity.Invoice;
+import com.invoicefinance.entity.SavedSearch;
+import com.invoicefinance.event.InvoiceStatusChangedEvent;
+import com.invoicefinance.event.MarketplaceStreamOpenedEvent;
+import com.invoicefinance.event.SavedSearchChangedEvent;
+import com.invoicefinance.repository.SavedSearchMatchRepository;
+import com.invoicefinance.repository.SavedSearchRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.Collectors;
+
+// Matches every newly listed invoice against lenders' saved searches. Matches are recorded in
+// saved_search_matches and pushed over the owner's marketplace stream: straight away when they are
+// connected to this node, otherwise when they next connect or when the node holding their stream
+// polls. Recording and delivery run on one background thread, outside the listing's transaction.
+// The predicate index is node-local, so it is rebuilt periodically to pick up searches changed on
+// other nodes.
+@Component
+@Slf4j
+public class SavedSearchPercolator {
+    
+    static final String MATCH_EVENT = "SAVED_SEARCH_MATCH";
+    
+    private record Subscriber(Long userId, String name) {
+    }
+    
+    private record Delivery(Long userId, Long invoiceId) {
+    }
+    
+    private final SavedSearchRepository savedSearchRepository;
+    private final SavedSearchMatchRepository matchRepository;
+    private final MarketplaceStreamService marketplaceStreamService;
+    private final int deliveryBatchSize;
+    private final long matchRetentionHours;
+    
+    private final ListingPredicateIndex<Subscriber> index = new ListingPredicateIndex<>();
+    
+    private final ExecutorService deliveries = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "saved-search-delivery");
+        thread.setDaemon(true);
+        return thread;
+    });
+    
+    public SavedSearchPercolator(
+            SavedSearchRepository savedSearchRepository,
+            SavedSearchMatchRepository matchRepository,
+            MarketplaceStreamService marketplaceStreamService,
+            @Value("${app.saved-searches.delivery-batch-size:500}") int deliveryBatchSize,
+            @Value("${app.saved-searches.match-retention-hours:168}") long matchRetentionHours) {
+        this.savedSearchRepository = savedSearchRepository;
+        this.matchRepository = matchRepository;
+        this.marketplaceStreamService = marketplaceStreamService;
+        this.deliveryBatchSize = Math.max(1, deliveryBatchSize);
+        this.matchRetentionHours = Math.max(1, matchRetentionHours);
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        deliveries.shutdownNow();
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        index.rebuild(() -> savedSearchRepository.findAllNotifying().stream()
+                .map(search -> new ListingPredicateIndex.Entry<Subscriber>(
+                        search.getId(), criteriaOf(search), subscriberOf(search)))
+                .collect(Collectors.toList()));
+        log.info("Saved search percolator rebuilt with {} searches", index.size());
+    }
+    
+    @Scheduled(fixedDelayString = "${app.saved-searches.resync-interval-ms:60000}",
+               initialDelayString = "${app.saved-searches.resync-interval-ms:60000}")
+    public void resync() {
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            log.warn("Saved search percolator rebuild failed: {}", e.getMessage());
+        }
+    }
+    
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onSavedSearchChanged(SavedSearchChangedEvent event) {
+        SavedSearch search = event.getSavedSearch();
+        if (event.isDeleted() || !search.isNotify()) {
+            index.remove(search.getId());
+        } else {
+            index.put(search.getId(), criteriaOf(search), subscriberOf(search));
+        }
+    }
+    
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onInvoiceStatusChanged(InvoiceStatusChangedEvent event) {
+        if (!event.isListed()) {
+            return;
+        }
+        
+        Invoice invoice = event.getInvoice();
+        List<ListingPredicateIndex.Entry<Subscriber>> matches = index.match(invoice);
+        if (matches.isEmpty()) {
+            return;
+        }
+        
+        List<SavedSearchMatchRepository.NewMatch> newMatches = new ArrayList<>(matches.size());
+        for (ListingPredicateIndex.Entry<Subscriber> match : matches) {
+            newMatches.add(new SavedSearchMatchRepository.NewMatch(
+                    match.id(), match.payload().userId(), invoice.getId()));
+        }
+        submit(() -> {
+            matchRepository.insertAll(newMatches, LocalDateTime.now());
+            Set<Long> userIds = newMatches.stream()
+                    .map(SavedSearchMatchRepository.NewMatch::userId)
+                    .collect(Collectors.toSet());
+            userIds.retainAll(marketplaceStreamService.connectedUserIds());
+            deliverPending(userIds);
+        });
+        
+        log.info("Invoice {} matched {} saved searches", invoice.getId(), matches.size());
+    }
+    
+    // Anything recorded while the lender was away is delivered as soon as they reconnect
+    @EventListener
+    public void onStreamOpened(MarketplaceStreamOpenedEvent event) {
+        submit(() -> deliverPending(Set.of(event.getUserId())));
+    }
+    
+    // Picks up matches recorded on other nodes for lenders whose stream is held by this one
+    @Scheduled(fixedDelayString = "${app.saved-searches.delivery-poll-ms:5000}",
+               initialDelayString = "${app.saved-searches.delivery-poll-ms:5000}")
+    public void pollPending() {
+        Set<Long> userIds = marketplaceStreamService.connectedUserIds();
+        if (!userIds.isEmpty()) {
+            submit(() -> deliverPending(userIds));
+        }
+    }
+    
+    @Scheduled(fixedDelayString = "${app.saved-searches.match-cleanup-interval-ms:3600000}",
+               initialDelayString = "${app.saved-searches.match-cleanup-interval-ms:3600000}")
+    public void pruneMatches() {
+        try {
+            int deleted = matchRepository.deleteMatchedBefore(LocalDateTime.now().minusHours(matchRetentionHours));
+            if (deleted > 0) {
+                log.debug("Pruned {} saved search matches", deleted);
+            }
+        } catch (Exception e) {
+            log.warn("Failed to prune saved search matches: {}", e.getMessage());
+        }
+    }
+    
+    private void submit(Runnable task) {
+        try {
+            deliveries.execute(() -> {
+                try {
+                    task.run();
+                } catch (RuntimeException e) {
+                    log.warn("Saved search match delivery failed: {}", e.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            log.debug("Saved search delivery rejected during shutdown");
+        }
+    }
+    
+    // One notification per lender and invoice, naming every search of theirs the listing satisfied.
+    // Rows are marked delivered once queued on at least one connection; the rest wait for the next
+    // connection or poll.
+    private void deliverPending(Collection<Long> userIds) {
+        if (userIds.isEmpty()) {
+            return;
+        }
+        
+        Map<Delivery, List<SavedSearchMatchRepository.PendingMatch>> grouped = new LinkedHashMap<>();
+        for (SavedSearchMatchRepository.PendingMatch row : matchRepository.findUndelivered(userIds, deliveryBatchSize)) {
+            grouped.computeIfAbsent(new Delivery(row.userId(), row.invoiceId()), key -> new ArrayList<>()).add(row);
+        }
+        if (grouped.isEmpty()) {
+            return;
+        }
+        
+        List<Long> delivered = new ArrayList<>();
+        grouped.forEach((delivery, rows) -> {
+            SavedSearchMatchRepository.PendingMatch first = rows.get(0);
+            int sent = marketplaceStreamService.sendToUser(delivery.userId(), MATCH_EVENT, SavedSearchMatch.builder()
+                    .savedSearchIds(rows.stream().map(row -> row.savedSearchId().toString()).collect(Collectors.toList()))
+                    .savedSearchNames(rows.stream().map(SavedSearchMatchRepository.PendingMatch::savedSearchName)
+                            .collect(Collectors.toList()))
+                    .invoiceId(delivery.invoiceId().toString())
+                    .invoiceNumber(first.invoiceNumber())
+                    .buyerName(first.buyerName())
+                    .buyerGstin(first.buyerGstin())
+                    .invoiceAmount(first.invoiceAmount())
+                    .requestedAmount(first.requestedAmount())
+                    .expectedInterestRate(first.expectedInterestRate())
+                    .matchedAt(first.matchedAt())
+                    .build());
+            if (sent > 0) {
+                rows.forEach(row -> delivered.add(row.id()));
+            }
+        });
+        matchRepository.markDelivered(delivered, LocalDateTime.now());
+        
+        log.debug("Delivered {} of {} saved search notifications", delivered.size(), grouped.size());
+    }
+    
+    private static ListingPredicateIndex.Criteria criteriaOf(SavedSearch search) {
+        return ListingPredicateIndex.Criteria.forBuyer(search.getMinAmount(), search.getMaxAmount(),
+                search.getBuyerGstin(), search.getMinRate(), search.getMaxTenorDays(), search.getSearch());
+    }
+    
+    private static Subscriber subscriberOf(SavedSearch search) {
+        return new Subscriber(search.getUser().getId(), search.getName());
+    }
+}
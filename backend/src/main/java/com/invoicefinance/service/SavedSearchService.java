@@ -0,0 +1,126 @@
+package com.invoicefinance.service;
+
+import com.invoicefinance.dto.SavedSearchRequest;
+import com.invoicefinance.dto.SavedSearchResponse;
+import com.invoicefinance.entity.SavedSearch;
+import com.invoicefinance.entity.User;
+import com.invoicefinance.event.SavedSearchChangedEvent;
+import com.invoicefinance.exception.BadRequestException;
+import com.invoicefinance.exception.ResourceNotFoundException;
+import com.invoicefinance.repository.SavedSearchRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SavedSearchService {
+    
+    private static final int MAX_SAVED_SEARCHES_PER_USER = 50;
+    
+    private final SavedSearchRepository savedSearchRepository;
+    private final UserService userService;
+    private final ApplicationEventPublisher eventPublisher;
+    
+    @Transactional
+    public SavedSearchResponse createSavedSearch(SavedSearchRequest request) {
+        User currentUser = userService.getCurrentUser();
+        
+        if (!currentUser.isLender()) {
+            throw new BadRequestException("Only lenders can save marketplace searches");
+        }
+        
+        if (savedSearchRepository.countByUser(currentUser) >= MAX_SAVED_SEARCHES_PER_USER) {
+            throw new BadRequestException("You can have at most " + MAX_SAVED_SEARCHES_PER_USER + " saved searches");
+        }
+        
+        SavedSearch savedSearch = SavedSearch.builder()
+                .user(currentUser)
+                .build();
+        applyRequest(savedSearch, request);
+        
+        savedSearch = savedSearchRepository.save(savedSearch);
+        eventPublisher.publishEvent(new SavedSearchChangedEvent(savedSearch, false));
+        
+        log.info("Created saved search with ID: {} for lender: {}", savedSearch.getId(), currentUser.getId());
+        return mapToSavedSearchResponse(savedSearch);
+    }
+    
+    @Transactional
+    public SavedSearchResponse updateSavedSearch(Long id, SavedSearchRequest request) {
+        User currentUser = userService.getCurrentUser();
+        
+        SavedSearch savedSearch = savedSearchRepository.findByIdAndUser(id, currentUser)
+                .orElseThrow(() -> new ResourceNotFoundException("Saved search not found"));
+        applyRequest(savedSearch, request);
+        
+        savedSearch = savedSearchRepository.save(savedSearch);
+        eventPublisher.publishEvent(new SavedSearchChangedEvent(savedSearch, false));
+        
+        return mapToSavedSearchResponse(savedSearch);
+    }
+    
+    @Transactional
+    public void deleteSavedSearch(Long id) {
+        User currentUser = userService.getCurrentUser();
+        
+        SavedSearch savedSearch = savedSearchRepository.findByIdAndUser(id, currentUser)
+                .orElseThrow(() -> new ResourceNotFoundException("Saved search not found"));
+        
+        savedSearchRepository.delete(savedSearch);
+        eventPublisher.publishEvent(new SavedSearchChangedEvent(savedSearch, true));
+    }
+    
+    @Transactional(readOnly = true)
+    public List<SavedSearchResponse> getMySavedSearches() {
+        User currentUser = userService.getCurrentUser();
+        
+        return savedSearchRepository.findByUserOrderByCreatedAtDesc(currentUser).stream()
+                .map(this::mapToSavedSearchResponse)
+                .collect(Collectors.toList());
+    }
+    
+    private void applyRequest(SavedSearch savedSearch, SavedSearchRequest request) {
+        if (request.getMinAmount() != null && request.getMaxAmount() != null
+                && request.getMinAmount().compareTo(request.getMaxAmount()) > 0) {
+            throw new BadRequestException("Minimum amount cannot exceed maximum amount");
+        }
+        
+        savedSearch.setName(request.getName().trim());
+        savedSearch.setMinAmount(request.getMinAmount());
+        savedSearch.setMaxAmount(request.getMaxAmount());
+        savedSearch.setBuyerGstin(blankToNull(request.getBuyerGstin()));
+        savedSearch.setMinRate(request.getMinRate());
+        savedSearch.setMaxTenorDays(request.getMaxTenorDays());
+        savedSearch.setSearch(blankToNull(request.getSearch()));
+        if (request.getNotify() != null) {
+            savedSearch.setNotify(request.getNotify());
+        }
+    }
+    
+    private String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+    
+    private SavedSearchResponse mapToSavedSearchResponse(SavedSearch savedSearch) {
+        return SavedSearchResponse.builder()
+                .id(savedSearch.getId().toString())
+                .name(savedSearch.getName())
+                .minAmount(savedSearch.getMinAmount())
+                .maxAmount(savedSearch.getMaxAmount())
+                .buyerGstin(savedSearch.getBuyerGstin())
+                .minRate(savedSearch.getMinRate())
+                .maxTenorDays(savedSearch.getMaxTenorDays())
+                .search(savedSearch.getSearch())
+                .notify(savedSearch.isNotify())
+                .createdAt(savedSearch.getCreatedAt())
+                .updatedAt(savedSearch.getUpdatedAt())
+                .build();
+    }
+}
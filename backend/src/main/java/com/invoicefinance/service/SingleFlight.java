@@ -0,0 +1,90 @@
+package com.invoicefinance.service;
+
+import com.invoicefinance.dto.CoalescingStatsResponse;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+// Coalesces concurrent calls for the same key: the first caller computes, everyone who arrives
+// while it is running waits for and shares that result. Nothing is kept once the computation
+// finishes, so this never serves a stale answer - it only removes duplicate concurrent work.
+public class SingleFlight<K, V> {
+    
+    private static class Flight<V> {
+        private final CompletableFuture<V> result = new CompletableFuture<>();
+        private final AtomicInteger callers = new AtomicInteger(1);
+    }
+    
+    private final String name;
+    private final Map<K, Flight<V>> inFlight = new ConcurrentHashMap<>();
+    
+    private final LongAdder computations = new LongAdder();
+    private final LongAdder callers = new LongAdder();
+    private final LongAdder coalescedCallers = new LongAdder();
+    private final AtomicLong maxCallersPerComputation = new AtomicLong();
+    
+    public SingleFlight(String name) {
+        this.name = name;
+    }
+    
+    public V execute(K key, Supplier<V> computation) {
+        callers.increment();
+        
+        Flight<V> flight = new Flight<>();
+        Flight<V> existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            existing.callers.incrementAndGet();
+            coalescedCallers.increment();
+            return await(existing);
+        }
+        
+        try {
+            V value = computation.get();
+            flight.result.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            flight.result.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+            computations.increment();
+            maxCallersPerComputation.accumulateAndGet(flight.callers.get(), Math::max);
+        }
+    }
+    
+    public CoalescingStatsResponse getStats() {
+        long computationCount = computations.sum();
+        long callerCount = callers.sum();
+        
+        return CoalescingStatsResponse.builder()
+                .name(name)
+                .inFlight(inFlight.size())
+                .computations(computationCount)
+                .callers(callerCount)
+                .coalescedCallers(coalescedCallers.sum())
+                .callersPerComputation(computationCount == 0 ? 0.0 : (double) callerCount / computationCount)
+                .maxCallersPerComputation(maxCallersPerComputation.get())
+                .build();
+    }
+    
+    // Waiters see the leader's exception itself, so error handling is the same as for the leader
+    private V await(Flight<V> flight) {
+        try {
+            return flight.result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.invoicefinance.service;
+
+import com.invoicefinance.entity.FundingOffer;
+import com.invoicefinance.entity.SyndicationAllocation;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+// Splits a target amount across competing offers. Offers are ranked the same way as the offer book
+// (lowest effective annual cost, then earliest, then lowest id) and the result lists only offers that
+// received something, best-ranked first. Amounts are in whole paise and never exceed what an offer put
+// up, so the total is the target or, if the offers fall short, everything that was offered.
+@Component
+public class SyndicationAllocator {
+    
+    private static final BigDecimal ONE_PAISA = new BigDecimal("0.01");
+    
+    public record Allocation(FundingOffer offer, BigDecimal amount) {
+    }
+    
+    public static final Comparator<FundingOffer> BEST_FIRST = Comparator
+            .comparing((FundingOffer offer) -> OfferBook.effectiveAnnualCost(
+                    offer.getInterestRatePa(), offer.getProcessingFee(), offer.getOfferAmount(), offer.getTenorDays()))
+            .thenComparing(FundingOffer::getCreatedAt)
+            .thenComparing(FundingOffer::getId);
+    
+    public List<Allocation> allocate(List<FundingOffer> offers, BigDecimal target, SyndicationAllocation strategy) {
+        List<FundingOffer> ranked = new ArrayList<>(offers);
+        ranked.sort(BEST_FIRST);
+        
+        return SyndicationAllocation.PRO_RATA.equals(strategy)
+                ? proRata(ranked, target)
+                : bestRateFirst(ranked, target);
+    }
+    
+    // Fills from the cheapest offer down; only the last lender taken can be partially allocated
+    private List<Allocation> bestRateFirst(List<FundingOffer> ranked, BigDecimal target) {
+        List<Allocation> allocations = new ArrayList<>();
+        BigDecimal remaining = target;
+        for (FundingOffer offer : ranked) {
+            if (remaining.signum() <= 0) {
+                break;
+            }
+            BigDecimal amount = offer.getOfferAmount().min(remaining);
+            allocations.add(new Allocation(offer, amount));
+            remaining = remaining.subtract(amount);
+        }
+        return allocations;
+    }
+    
+    // Scales every offer by target / total offered, rounding down to the paisa; the few paise lost to
+    // rounding go one at a time to the best-ranked offers that still have room
+    private List<Allocation> proRata(List<FundingOffer> ranked, BigDecimal target) {
+        BigDecimal totalOffered = ranked.stream()
+                .map(FundingOffer::getOfferAmount)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        if (totalOffered.compareTo(target) <= 0) {
+            return ranked.stream()
+                    .map(offer -> new Allocation(offer, offer.getOfferAmount()))
+                    .toList();
+        }
+        
+        BigDecimal[] amounts = new BigDecimal[ranked.size()];
+        BigDecimal allocated = BigDecimal.ZERO;
+        for (int i = 0; i < ranked.size(); i++) {
+            amounts[i] = ranked.get(i).getOfferAmount().multiply(target)
+                    .divide(totalOffered, 2, RoundingMode.DOWN);
+            allocated = allocated.add(amounts[i]);
+        }
+        
+        BigDecimal shortfall = target.subtract(allocated);
+        for (int i = 0; shortfall.signum() > 0; i = (i + 1) % ranked.size()) {
+            if (amounts[i].compareTo(ranked.get(i).getOfferAmount()) < 0) {
+                amounts[i] = amounts[i].add(ONE_PAISA);
+                shortfall = shortfall.subtract(ONE_PAISA);
+            }
+        }
+        
+        List<Allocation> allocations = new ArrayList<>();
+        for (int i = 0; i < ranked.size(); i++) {
+            if (amounts[i].signum() > 0) {
+                allocations.add(new Allocation(ranked.get(i), amounts[i]));
+            }
+        }
+        return allocations;
+    }
+}
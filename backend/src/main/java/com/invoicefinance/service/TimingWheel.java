@@ -0,0 +1,135 @@
+package com.invoicefinance.service;
+
+import java.util.Arrays;
+
+// Hierarchical timing wheel of (id, deadline) pairs. Scheduling is O(1) and advancing the clock
+// only touches the slots that come due, however many deadlines are outstanding: level 0 holds
+// deadlines less than one revolution away at tick resolution, each higher level holds coarser
+// slots that are cascaded down a level when the clock reaches them. Not thread-safe.
+public class TimingWheel {
+    
+    private final long tickMillis;
+    private final int[] slotsPerLevel;
+    private final long[] ticksPerSlot;
+    private final Bucket[][] levels;
+    
+    private long currentTick;
+    private long size;
+    
+    public TimingWheel(long tickMillis, long startMillis, int... slotsPerLevel) {
+        this.tickMillis = tickMillis;
+        this.slotsPerLevel = slotsPerLevel.clone();
+        this.ticksPerSlot = new long[slotsPerLevel.length];
+        this.levels = new Bucket[slotsPerLevel.length][];
+        
+        long ticks = 1;
+        for (int level = 0; level < slotsPerLevel.length; level++) {
+            ticksPerSlot[level] = ticks;
+            levels[level] = new Bucket[slotsPerLevel[level]];
+            for (int slot = 0; slot < slotsPerLevel[level]; slot++) {
+                levels[level][slot] = new Bucket();
+            }
+            ticks *= slotsPerLevel[level];
+        }
+        this.currentTick = startMillis / tickMillis;
+    }
+    
+    // The furthest deadline the wheel can hold, measured from its current time
+    public long horizonMillis() {
+        int top = slotsPerLevel.length - 1;
+        return ticksPerSlot[top] * slotsPerLevel[top] * tickMillis - tickMillis;
+    }
+    
+    public long size() {
+        return size;
+    }
+    
+    // Returns false when the deadline is beyond the horizon; a deadline already due is delivered by
+    // the next advance()
+    public boolean schedule(long id, long deadlineMillis) {
+        long deadlineTick = Math.max(deadlineMillis / tickMillis, currentTick + 1);
+        if (!place(id, deadlineTick)) {
+            return false;
+        }
+        size++;
+        return true;
+    }
+    
+    // Moves the clock to nowMillis and hands every id whose deadline has been reached to the sink
+    public void advance(long nowMillis, IdSink sink) {
+        long targetTick = nowMillis / tickMillis;
+        while (currentTick < targetTick) {
+            currentTick++;
+            
+            // Cascade coarser levels first so their entries land in level 0 before it is drained
+            for (int level = levels.length - 1; level > 0; level--) {
+                if (currentTick % ticksPerSlot[level] == 0) {
+                    Bucket bucket = levels[level][slotIndex(level, currentTick)];
+                    long[] ids = Arrays.copyOf(bucket.ids, bucket.size);
+                    long[] deadlines = Arrays.copyOf(bucket.deadlines, bucket.size);
+                    bucket.clear();
+                    for (int i = 0; i < ids.length; i++) {
+                        if (deadlines[i] <= currentTick) {
+                            size--;
+                            sink.accept(ids[i]);
+                        } else {
+                            place(ids[i], deadlines[i]);
+                        }
+                    }
+                }
+            }
+            
+            Bucket due = levels[0][slotIndex(0, currentTick)];
+            for (int i = 0; i < due.size; i++) {
+                sink.accept(due.ids[i]);
+            }
+            size -= due.size;
+            due.clear();
+        }
+    }
+    
+    private boolean place(long id, long deadlineTick) {
+        long delta = deadlineTick - currentTick;
+        for (int level = 0; level < levels.length; level++) {
+            if (delta < ticksPerSlot[level] * slotsPerLevel[level]) {
+                levels[level][slotIndex(level, deadlineTick)].add(id, deadlineTick);
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private int slotIndex(int level, long tick) {
+        return (int) ((tick / ticksPerSlot[level]) % slotsPerLevel[level]);
+    }
+    
+    @FunctionalInterface
+    public interface IdSink {
+        void accept(long id);
+    }
+    
+    // Parallel primitive arrays keep millions of pending deadlines cheap to hold
+    private static class Bucket {
+        private long[] ids = new long[4];
+        private long[] deadlines = new long[4];
+        private int size;
+        
+        private void add(long id, long deadlineTick) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                deadlines = Arrays.copyOf(deadlines, size * 2);
+            }
+            ids[size] = id;
+            deadlines[size] = deadlineTick;
+            size++;
+        }
+        
+        private void clear() {
+            if (ids.length > 64) {
+                ids = new long[4];
+                deadlines = new long[4];
+            }
+            size = 0;
+        }
+    }
+}
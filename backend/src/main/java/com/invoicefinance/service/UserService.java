@@ -26,6 +26,7 @@ import java.time.LocalDateTime;
 public class UserService {
     
     private final UserRepository userRepository;
+    private final KycStatusService kycStatusService;
     
     public User getCurrentUser() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
@@ -108,8 +109,8 @@ public class UserService {
         }
         
         user.setKycDocumentUrl(documentUrl);
-        user.setKycStatus(KycStatus.PENDING);
         user.setKycSubmittedAt(LocalDateTime.now());
+        kycStatusService.changeStatus(user, KycStatus.PENDING);
         
         user = userRepository.save(user);
         return mapToProfileResponse(user);
@@ -124,17 +125,10 @@ public class UserService {
         
         User user = getUserById(userId);
         
-        user.setKycStatus(request.getKycStatus());
-        
-        if (request.getKycStatus() == KycStatus.VERIFIED) {
-            user.setKycApprovedAt(LocalDateTime.now());
-            user.setKycRejectedAt(null);
-            user.setKycRejectionReason(null);
-        } else if (request.getKycStatus() == KycStatus.REJECTED) {
-            user.setKycRejectedAt(LocalDateTime.now());
-            user.setKycApprovedAt(null);
+        if (request.getKycStatus() == KycStatus.REJECTED) {
             user.setKycRejectionReason(request.getRejectionReason());
         }
+        kycStatusService.changeStatus(user, request.getKycStatus());
         
         user = userRepository.save(user);
         return mapToProfileResponse(user);
@@ -0,0 +1,31 @@
+-- Lender auto-bidding rules, evaluated against every newly listed invoice
+-- Migration: V10__Create_auto_bid_rules_tables.sql
+
+CREATE TABLE auto_bid_rules (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    name VARCHAR(100) NOT NULL,
+    min_amount DECIMAL(15,2),
+    max_amount DECIMAL(15,2),
+    min_rate DECIMAL(5,2),
+    max_tenor_days INT,
+    max_offer_amount DECIMAL(15,2) NOT NULL,
+    processing_fee DECIMAL(15,2) NOT NULL DEFAULT 0,
+    offer_validity_hours INT NOT NULL DEFAULT 72,
+    max_exposure_per_buyer DECIMAL(15,2),
+    active BOOLEAN NOT NULL DEFAULT TRUE,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    
+    INDEX idx_auto_bid_rules_user (user_id),
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+);
+
+-- Buyers a rule is restricted to; a rule without rows here bids on any buyer
+CREATE TABLE auto_bid_rule_buyers (
+    rule_id BIGINT NOT NULL,
+    buyer_gstin VARCHAR(15) NOT NULL,
+    
+    PRIMARY KEY (rule_id, buyer_gstin),
+    FOREIGN KEY (rule_id) REFERENCES auto_bid_rules(id) ON DELETE CASCADE
+);
@@ -0,0 +1,7 @@
+-- Opt-in sealed-bid auctions: an OPEN invoice with auction_ends_at set is cleared at that time
+-- Migration: V11__Add_invoice_auctions.sql
+
+ALTER TABLE invoices ADD COLUMN auction_ends_at DATETIME NULL;
+
+-- The clearing engine loads open auctions by status and end time at startup and in its sweep
+CREATE INDEX idx_invoices_status_auction_ends ON invoices(status, auction_ends_at);
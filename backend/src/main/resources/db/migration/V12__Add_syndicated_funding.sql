@@ -0,0 +1,33 @@
+-- Syndicated funding: an invoice can be filled by several offers, each recorded as a deal participation
+-- Migration: V12__Add_syndicated_funding.sql
+
+ALTER TABLE invoices ADD COLUMN syndicated BOOLEAN NOT NULL DEFAULT FALSE;
+ALTER TABLE invoices ADD COLUMN funded_amount DECIMAL(15,2) NOT NULL DEFAULT 0;
+
+ALTER TABLE deals ADD COLUMN allocation_strategy VARCHAR(20);
+
+CREATE TABLE deal_participations (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    deal_id BIGINT NOT NULL,
+    offer_id BIGINT NOT NULL,
+    lender_user_id BIGINT NOT NULL,
+    amount DECIMAL(15,2) NOT NULL,
+    interest_rate_pa DECIMAL(5,2) NOT NULL,
+    processing_fee DECIMAL(15,2) NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    
+    UNIQUE KEY uk_deal_participations_offer (offer_id),
+    INDEX idx_deal_participations_deal (deal_id),
+    INDEX idx_deal_participations_lender (lender_user_id),
+    FOREIGN KEY (deal_id) REFERENCES deals(id) ON DELETE CASCADE,
+    FOREIGN KEY (offer_id) REFERENCES funding_offers(id),
+    FOREIGN KEY (lender_user_id) REFERENCES users(id)
+);
+
+-- Existing single-lender deals become one full participation each
+INSERT INTO deal_participations (deal_id, offer_id, lender_user_id, amount, interest_rate_pa, processing_fee, created_at)
+SELECT d.id, fo.id, fo.lender_user_id, fo.offer_amount, fo.interest_rate_pa, fo.processing_fee, d.created_at
+FROM deals d JOIN funding_offers fo ON fo.id = d.selected_offer_id;
+
+UPDATE invoices i JOIN deals d ON d.invoice_id = i.id JOIN funding_offers fo ON fo.id = d.selected_offer_id
+SET i.funded_amount = fo.offer_amount;
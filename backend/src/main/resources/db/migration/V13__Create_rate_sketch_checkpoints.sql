@@ -0,0 +1,10 @@
+-- Periodic checkpoints of the in-memory offer rate distributions, one row per bucket
+-- Migration: V13__Create_rate_sketch_checkpoints.sql
+
+CREATE TABLE rate_sketch_checkpoints (
+    bucket_key VARCHAR(64) PRIMARY KEY,
+    counts MEDIUMTEXT NOT NULL,
+    sample_count BIGINT NOT NULL,
+    last_offer_id BIGINT NOT NULL,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+);
@@ -0,0 +1,15 @@
+-- Denormalized offer activity on invoices so marketplace rows can show and sort by it without a join
+-- Migration: V14__Add_invoice_offer_stats.sql
+
+ALTER TABLE invoices ADD COLUMN offer_count INT NOT NULL DEFAULT 0;
+ALTER TABLE invoices ADD COLUMN best_rate DECIMAL(5,2);
+ALTER TABLE invoices ADD COLUMN last_offer_at DATETIME;
+
+UPDATE invoices i
+SET i.offer_count = (SELECT COUNT(*) FROM funding_offers fo WHERE fo.invoice_id = i.id AND fo.status = 'ACTIVE'),
+    i.best_rate = (SELECT MIN(fo.interest_rate_pa) FROM funding_offers fo WHERE fo.invoice_id = i.id AND fo.status = 'ACTIVE'),
+    i.last_offer_at = (SELECT MAX(fo.created_at) FROM funding_offers fo WHERE fo.invoice_id = i.id)
+WHERE i.auction_ends_at IS NULL;
+
+-- Keyset pages for the most-offers marketplace sort
+CREATE INDEX idx_invoices_status_offer_count ON invoices(status, offer_count, created_at, id);
@@ -0,0 +1,34 @@
+-- One KYC status per user, plus a change log other nodes poll to invalidate their KYC caches
+-- Migration: V15__Create_kyc_status_changes.sql
+
+CREATE TABLE kyc_status_changes (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    status ENUM('PENDING', 'VERIFIED', 'REJECTED') NOT NULL,
+    changed_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX idx_kyc_status_changes_changed_at ON kyc_status_changes(changed_at);
+
+-- users.kyc_status is now kept in step with the KYC document. Where the two disagree, a VERIFIED
+-- status on either side wins, so neither an admin verification nor a document approval is lost;
+-- otherwise the document status, which deal views have been reading, is taken. Every user whose
+-- status moves is recorded in the change log.
+INSERT INTO kyc_status_changes (user_id, status)
+SELECT u.id, IF(u.kyc_status = 'VERIFIED' OR k.status = 'VERIFIED', 'VERIFIED', k.status)
+FROM users u
+JOIN kyc_documents k ON k.user_id = u.id
+WHERE u.kyc_status <> IF(u.kyc_status = 'VERIFIED' OR k.status = 'VERIFIED', 'VERIFIED', k.status);
+
+UPDATE users u
+JOIN kyc_documents k ON k.user_id = u.id
+SET u.kyc_status = 'VERIFIED',
+    u.kyc_approved_at = COALESCE(u.kyc_approved_at, CURRENT_TIMESTAMP),
+    k.status = 'VERIFIED'
+WHERE u.kyc_status <> k.status
+  AND (u.kyc_status = 'VERIFIED' OR k.status = 'VERIFIED');
+
+UPDATE users u
+JOIN kyc_documents k ON k.user_id = u.id
+SET u.kyc_status = k.status
+WHERE u.kyc_status <> k.status;
@@ -0,0 +1,15 @@
+-- Append-only history of deal status transitions
+-- Migration: V16__Create_deal_transitions.sql
+
+CREATE TABLE deal_transitions (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    deal_id BIGINT NOT NULL,
+    from_status VARCHAR(20) NOT NULL,
+    to_status VARCHAR(20) NOT NULL,
+    actor_user_id BIGINT,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    
+    INDEX idx_deal_transitions_deal (deal_id, id),
+    FOREIGN KEY (deal_id) REFERENCES deals(id),
+    FOREIGN KEY (actor_user_id) REFERENCES users(id)
+);
@@ -0,0 +1,18 @@
+-- Saved search matches, kept until they reach the lender's marketplace stream
+-- Migration: V17__Create_saved_search_matches.sql
+
+CREATE TABLE saved_search_matches (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    saved_search_id BIGINT NOT NULL,
+    user_id BIGINT NOT NULL,
+    invoice_id BIGINT NOT NULL,
+    matched_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    delivered_at TIMESTAMP NULL,
+    
+    UNIQUE KEY uk_saved_search_matches_search_invoice (saved_search_id, invoice_id),
+    INDEX idx_saved_search_matches_undelivered (user_id, delivered_at),
+    INDEX idx_saved_search_matches_matched_at (matched_at),
+    FOREIGN KEY (saved_search_id) REFERENCES saved_searches(id) ON DELETE CASCADE,
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
+    FOREIGN KEY (invoice_id) REFERENCES invoices(id)
+);
@@ -0,0 +1,19 @@
+-- Rate distribution counts shared by every node, replacing the per-bucket checkpoints that nodes
+-- overwrote one another's. Offers are counted once each, tracked by funding_offers.rate_sampled;
+-- existing offers start uncounted and are sampled in batches after the upgrade.
+-- Migration: V18__Replace_rate_sketch_checkpoints_with_counts.sql
+
+DROP TABLE rate_sketch_checkpoints;
+
+CREATE TABLE rate_sketch_counts (
+    bucket_key VARCHAR(64) NOT NULL,
+    basis_points INT NOT NULL,
+    sample_count BIGINT NOT NULL,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    
+    PRIMARY KEY (bucket_key, basis_points),
+    INDEX idx_rate_sketch_counts_updated_at (updated_at)
+);
+
+ALTER TABLE funding_offers ADD COLUMN rate_sampled BOOLEAN NOT NULL DEFAULT FALSE;
+CREATE INDEX idx_funding_offers_rate_sampled ON funding_offers(rate_sampled, id);
@@ -0,0 +1,4 @@
+-- Supports keyset pagination of the marketplace: WHERE status = ? ORDER BY created_at DESC, id DESC
+-- Migration: V7__Add_marketplace_keyset_index.sql
+
+CREATE INDEX idx_invoices_status_created_at_id ON invoices(status, created_at, id);
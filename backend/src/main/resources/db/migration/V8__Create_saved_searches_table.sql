@@ -0,0 +1,20 @@
+-- Lender-owned marketplace filters, percolated against every newly listed invoice
+-- Migration: V8__Create_saved_searches_table.sql
+
+CREATE TABLE saved_searches (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    name VARCHAR(100) NOT NULL,
+    min_amount DECIMAL(15,2),
+    max_amount DECIMAL(15,2),
+    buyer_gstin VARCHAR(15),
+    min_rate DECIMAL(5,2),
+    max_tenor_days INT,
+    search VARCHAR(255),
+    notify BOOLEAN NOT NULL DEFAULT TRUE,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    
+    INDEX idx_saved_searches_user (user_id),
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+);
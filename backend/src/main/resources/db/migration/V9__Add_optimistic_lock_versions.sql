@@ -0,0 +1,8 @@
+-- Optimistic locking for invoices and funding offers; conditional status updates bump it too
+-- Migration: V9__Add_optimistic_lock_versions.sql
+
+ALTER TABLE invoices ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE funding_offers ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+
+-- Sibling rejection on acceptance filters by invoice and status
+CREATE INDEX idx_funding_offers_invoice_status ON funding_offers(invoice_id, status);